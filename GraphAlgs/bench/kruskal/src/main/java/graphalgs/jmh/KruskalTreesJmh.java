@@ -0,0 +1,68 @@
+// Title: JMH Benchmarks for KruskalTreesBench
+
+/*
+    Full Program Description:
+
+    Runs the operations of KruskalTreesBench under JMH, which forks a fresh JVM, reports error bounds and, with
+    -prof gc, the bytes allocated per operation. JMH will not run benchmarks in the default package, so this class
+    lives in graphalgs.jmh and looks the operation up by name through KruskalTreesBench.op(), which builds the input
+    once per trial.
+
+        java -jar bench/kruskal/target/benchmarks.jar KruskalTreesJmh -prof gc -p size=medium
+*/
+
+package graphalgs.jmh;
+
+// Import necessary libraries
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// JMH state holding one operation of KruskalTreesBench on one input
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KruskalTreesJmh {
+
+    @Param({"Graph.MST_Kruskal", "Graph.MST_KruskalParallel", "Graph.MST_FilterKruskal", "Graph.MST_Boruvka"})
+    public String op;
+
+    // sparse, dense, grid, powerlaw, or the path of a text or binary graph file
+    @Param({"sparse", "dense", "grid", "powerlaw"})
+    public String graph;
+
+    // small, medium or large
+    @Param({"small"})
+    public String size;
+
+    private LongSupplier run;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+
+        Method op = Class.forName("KruskalTreesBench")
+                .getDeclaredMethod("op", String.class, String.class, String.class);
+        op.setAccessible(true);
+        run = (LongSupplier) op.invoke(null, this.op, graph, size);
+    }
+
+    @Benchmark
+    public long run() {
+
+        return run.getAsLong();
+    }
+}
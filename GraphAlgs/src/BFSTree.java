@@ -0,0 +1,53 @@
+// Title: Result of a Breadth First Search
+
+/*
+    Holds the output of one breadth first search from a source vertex s.
+
+    order[0] .. order[count - 1] are the reached vertices in the order they were visited. Every vertex is added to
+    order[] once, when it is first seen, so the same array is used as the search queue.
+    level[v] is the number of edges on the shortest path from s to v (-1 if v was not reached).
+    parent[v] is the vertex v was reached from (0 for the source and for vertices that were not reached).
+
+    A BFSTree can be passed back into the search to be reused, so repeated searches do not allocate anything.
+*/
+
+// This class stores the visit order, levels and parents of a breadth first search
+class BFSTree {
+
+    public int source;
+    public int count;
+    public int[] order;
+    public int[] level;
+    public int[] parent;
+
+    // Constructor - allocates room for a graph with V vertices
+    public BFSTree(int V) {
+
+        order = new int[V];
+        level = new int[V + 1];
+        parent = new int[V + 1];
+        count = 0;
+
+        for (int v = 0; v <= V; v++) {
+
+            level[v] = -1;
+        }
+    }
+
+    // Clears the marks left by the previous search, only touching the vertices it reached
+    public void reset() {
+
+        for (int i = 0; i < count; i++) {
+
+            level[order[i]] = -1;
+            parent[order[i]] = 0;
+        }
+        count = 0;
+    }
+
+    // Returns true if the search reached v
+    public boolean reached(int v) {
+
+        return level[v] >= 0;
+    }
+}
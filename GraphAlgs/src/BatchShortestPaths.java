@@ -0,0 +1,201 @@
+// Title: Batch Multi-Source Shortest Paths on a Thread Pool
+
+/*
+    Full Program Description:
+
+    Runs Dijkstra's algorithm from many sources at once, for example to find the distances between thousands of
+    landmark vertices. A CSRGraph is never changed after it is built, so any number of threads can search it at the
+    same time without locking.
+
+    The pool gets one task per thread. Each task allocates a single DijkstraScratch and then keeps taking the next
+    source from a shared counter until none are left, so the dist[], parent[] and heap arrays are allocated once per
+    thread rather than once per source, and a thread that draws quick sources simply does more of them.
+
+    The results can be used in two ways:
+
+        run(sources, sink)              hands each tree to sink.tree(i, spt) on the thread that computed it, for the
+                                        i-th source. The tree is reused as soon as the call returns, so the sink
+                                        must copy anything it keeps, and it must be safe to call from several
+                                        threads at once.
+
+        distances(sources, targets)     fills a DistanceMatrix with the distance from every source to every target.
+                                        The matrix lives off the Java heap in a direct ByteBuffer, so a large one
+                                        does not add to garbage collection, and each thread writes its own rows.
+
+    Run this class as a program to compare a loop of SPT_Dijkstra calls with the batch on k random landmarks:
+
+        java BatchShortestPaths graph.txt|graph.bin [landmarks] [threads]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// This class runs Dijkstra's algorithm from many sources in parallel over one shared graph
+class BatchShortestPaths {
+
+    // Receives the shortest path tree of the i-th source
+    interface TreeSink {
+
+        void tree(int i, ShortestPathTree spt);
+    }
+
+    // Distances from rows sources to cols targets, held off the heap as little-endian longs
+    static final class DistanceMatrix {
+
+        private final int rows, cols;
+        private final LongBuffer cells;
+
+        DistanceMatrix(int _rows, int _cols) {
+
+            if ((long) _rows * _cols > Integer.MAX_VALUE / Long.BYTES) {
+
+                throw new IllegalArgumentException("A " + _rows + " x " + _cols + " matrix is too large");
+            }
+
+            rows = _rows;
+            cols = _cols;
+            cells = ByteBuffer.allocateDirect(rows * cols * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .asLongBuffer();
+        }
+
+        public int rows() {
+
+            return rows;
+        }
+
+        public int cols() {
+
+            return cols;
+        }
+
+        // Distance from source i to target j, Long.MAX_VALUE if there is no path
+        public long get(int i, int j) {
+
+            return cells.get(i * cols + j);
+        }
+
+        void set(int i, int j, long d) {
+
+            cells.put(i * cols + j, d);
+        }
+
+        // The whole matrix, row by row, for writing out or handing to other code
+        public LongBuffer buffer() {
+
+            return cells.duplicate();
+        }
+    }
+
+    private final CSRGraph g;
+    private final ForkJoinPool pool;
+
+    // Constructor - takes the graph to search and the pool to run on
+    public BatchShortestPaths(CSRGraph _g, ForkJoinPool _pool) {
+
+        g = _g;
+        pool = _pool;
+    }
+
+    // Runs Dijkstra's algorithm from every source, passing each tree to the sink
+    public void run(int[] sources, TreeSink sink) {
+
+        for (int s : sources) {
+
+            if (s < 1 || s > g.vertices()) {
+
+                throw new IllegalArgumentException("Vertex " + s + " is not in the graph");
+            }
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        int tasks = Math.max(1, Math.min(pool.getParallelism(), sources.length));
+
+        pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(k -> {
+
+            DijkstraScratch scratch = new DijkstraScratch(g.vertices());
+
+            for (int i = next.getAndIncrement(); i < sources.length; i = next.getAndIncrement()) {
+
+                sink.tree(i, g.SPT_Dijkstra(sources[i], scratch));
+            }
+        })).join();
+    }
+
+    // Distances from every source to every target, row i for sources[i] and column j for targets[j]
+    public DistanceMatrix distances(int[] sources, int[] targets) {
+
+        DistanceMatrix m = new DistanceMatrix(sources.length, targets.length);
+
+        run(sources, (i, spt) -> {
+
+            for (int j = 0; j < targets.length; j++) {
+
+                m.set(i, j, spt.dist[targets[j]]);
+            }
+        });
+        return m;
+    }
+
+    // Times SPT_Dijkstra in a loop against the batch, on the distances between random landmarks
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java BatchShortestPaths <graph.txt|graph.bin> [landmarks] [threads]");
+            return;
+        }
+
+        CSRGraph g = BinaryGraphFile.isBinary(args[0]) ? BinaryGraphFile.open(args[0]) : CSRGraph.load(args[0]);
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SplittableRandom rnd = new SplittableRandom(1);
+        int[] landmarks = new int[k];
+
+        for (int i = 0; i < k; i++) {
+
+            landmarks[i] = 1 + rnd.nextInt(g.vertices());
+        }
+
+        long start = System.nanoTime();
+        long[][] loop = new long[k][k];
+        for (int i = 0; i < k; i++) {
+
+            ShortestPathTree spt = g.SPT_Dijkstra(landmarks[i]);
+
+            for (int j = 0; j < k; j++) {
+
+                loop[i][j] = spt.dist[landmarks[j]];
+            }
+        }
+        long loopNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        DistanceMatrix m = new BatchShortestPaths(g, pool).distances(landmarks, landmarks);
+        long batchNanos = System.nanoTime() - start;
+
+        int wrong = 0;
+        for (int i = 0; i < k; i++) {
+
+            for (int j = 0; j < k; j++) {
+
+                wrong += loop[i][j] == m.get(i, j) ? 0 : 1;
+            }
+        }
+
+        System.out.println("V = " + g.vertices() + ", E = " + g.edges() + ", " + k + " landmarks, " + threads
+                + " threads");
+        System.out.printf("SPT_Dijkstra loop   %10.1f ms  %8.3f ms/source%n", loopNanos / 1e6, loopNanos / 1e6 / k);
+        System.out.printf("BatchShortestPaths  %10.1f ms  %8.3f ms/source  %.1fx%n", batchNanos / 1e6,
+                batchNanos / 1e6 / k, (double) loopNanos / batchNanos);
+        System.out.println(wrong == 0 ? "All distances match" : wrong + " distances differ");
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,139 @@
+// Title: Micro Benchmark Harness
+
+/*
+    Full Program Description:
+
+    A small benchmark harness for the graph algorithms that needs nothing beyond the JDK. Each benchmark is warmed up
+    so the JIT compiler has finished with it, then timed over a number of measured iterations. As well as the time
+    per operation, the harness reports how much memory the operation allocated (from the HotSpot allocation counters,
+    like the "gc.alloc.rate.norm" figure of a GC profiler), the allocation rate in MB/s, and the number of garbage
+    collections and time spent in them while measuring.
+
+    The allocation is summed over every live thread in the JVM, so work an operation hands to a ForkJoinPool is
+    counted along with the calling thread's own. Anything else running in the JVM at the same time is counted too, and
+    a thread that ends while measuring takes its count with it (pool workers normally stay alive between iterations).
+
+    The result of every operation is folded into a volatile field so the JIT compiler cannot remove the work.
+*/
+
+// Import necessary libraries
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+// This class times benchmark operations and measures their allocation
+final class Bench {
+
+    // One benchmark operation, returning any value that depends on the work done
+    interface Op {
+
+        long run();
+    }
+
+    // Results are folded into here so that the work cannot be optimised away
+    static volatile long sink;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private Bench() {
+    }
+
+    // Prints the column headings for run()
+    public static void header() {
+
+        System.out.printf("%-56s %12s %12s %14s %10s %6s %8s%n",
+                "Benchmark", "ms/op", "min ms/op", "alloc B/op", "alloc MB/s", "GCs", "GC ms");
+    }
+
+    // Warms up the operation, then times it and prints one line of results
+    public static void run(String name, int warmups, int iterations, Op op) {
+
+        long t, best, total, bytes, gcCount, gcTime;
+        Map<Long, Long> allocated;
+
+        for (int i = 0; i < warmups; i++) {
+
+            sink += op.run();
+        }
+
+        best = Long.MAX_VALUE;
+        total = 0;
+        gcCount = -gcCount();
+        gcTime = -gcTime();
+        allocated = allocatedBytes();
+
+        for (int i = 0; i < iterations; i++) {
+
+            t = System.nanoTime();
+            sink += op.run();
+            t = System.nanoTime() - t;
+
+            total += t;
+            best = Math.min(best, t);
+        }
+
+        bytes = allocatedSince(allocated, allocatedBytes());
+        gcCount += gcCount();
+        gcTime += gcTime();
+
+        System.out.printf("%-56s %12.3f %12.3f %14d %10.1f %6d %8d%n", name, total / 1e6 / iterations, best / 1e6,
+                bytes / iterations, (bytes / 1e6) / Math.max(total / 1e9, 1e-9), gcCount, gcTime);
+    }
+
+    // Bytes allocated so far by each live thread, keyed by thread id, empty if the JVM cannot tell
+    private static Map<Long, Long> allocatedBytes() {
+
+        Map<Long, Long> bytes = new HashMap<>();
+
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+
+            long[] ids = THREADS.getAllThreadIds();
+            long[] counts = ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(ids);
+
+            for (int i = 0; i < ids.length; i++) {
+
+                if (counts[i] > 0) {
+
+                    bytes.put(ids[i], counts[i]);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Bytes allocated by all threads between two calls of allocatedBytes(), a thread started in between counts from 0
+    private static long allocatedSince(Map<Long, Long> before, Map<Long, Long> after) {
+
+        long sum = 0;
+
+        for (Map.Entry<Long, Long> e : after.entrySet()) {
+
+            sum += e.getValue() - before.getOrDefault(e.getKey(), 0L);
+        }
+        return sum;
+    }
+
+    private static long gcCount() {
+
+        long n = 0;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+            n += Math.max(0, gc.getCollectionCount());
+        }
+        return n;
+    }
+
+    private static long gcTime() {
+
+        long ms = 0;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+            ms += Math.max(0, gc.getCollectionTime());
+        }
+        return ms;
+    }
+}
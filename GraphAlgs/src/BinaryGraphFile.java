@@ -0,0 +1,229 @@
+// Title: Compact Binary Graph File Format
+
+/*
+    Full Program Description:
+
+    Parsing the text edge format on every start up is slow for large graphs, so this class saves a graph in a binary
+    form that can be used straight away without any parsing. The file holds the CSRGraph arrays exactly as they are
+    kept in memory, as little-endian ints:
+
+        magic     'WGRB'
+        version   1
+        V         number of vertices
+        E         number of undirected edges
+        offsets   V + 2 ints
+        targets   2E ints
+        weights   2E ints
+
+    open() memory maps each of the three sections read-only and returns a CSRGraph that reads from the mapping, so
+    nothing is copied onto the Java heap and the operating system page cache is shared by every JVM that opens the
+    same file. The searches on CSRGraph itself (SPT_Dijkstra, BF, PointToPoint, ...) run straight on the mapping.
+    GraphLists and Graph can also be built from that CSRGraph, but they copy every edge into their own objects on the
+    Java heap, so the mapping only saves the parsing for them, not the memory.
+
+    open() reads the offsets and targets through once and rejects a corrupt file straight away, with an IOException.
+
+    A single mapping is limited to 2GB, so a file can hold at most about 268 million edges.
+
+    Run this class as a program to convert a text graph file into the binary format:
+
+        java BinaryGraphFile wGraph1.txt wGraph1.bin
+*/
+
+// Import necessary libraries for I/O operations
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// This class reads and writes graphs in the binary CSR format
+final class BinaryGraphFile {
+
+    static final int MAGIC = 0x42524757; // "WGRB" when read as little-endian bytes
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private BinaryGraphFile() {
+    }
+
+    // Returns true if the file starts with the binary graph magic number
+    public static boolean isBinary(String graphFile) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+
+            if (ch.read(b, 0) < 4) {
+
+                return false;
+            }
+            return b.getInt(0) == MAGIC;
+        }
+    }
+
+    // Writes the graph to a binary file
+    public static void write(CSRGraph g, String binFile) throws IOException {
+
+        int V = g.vertices();
+        int E = g.edges();
+
+        try (FileChannel ch = FileChannel.open(Paths.get(binFile), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer b = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            b.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(E);
+
+            // offsets[v] for v = 0..V+1, vertex 0 is unused and starts at 0
+            put(ch, b, 0);
+            for (int v = 1; v <= V + 1; v++) {
+
+                put(ch, b, g.begin(v));
+            }
+
+            for (int i = 0; i < 2 * E; i++) {
+
+                put(ch, b, g.target(i));
+            }
+
+            for (int i = 0; i < 2 * E; i++) {
+
+                put(ch, b, g.weight(i));
+            }
+
+            flush(ch, b);
+        }
+    }
+
+    // Adds one int to the write buffer, writing the buffer out when it is full
+    static void put(FileChannel ch, ByteBuffer b, int x) throws IOException {
+
+        if (b.remaining() < 4) {
+
+            flush(ch, b);
+        }
+        b.putInt(x);
+    }
+
+    static void flush(FileChannel ch, ByteBuffer b) throws IOException {
+
+        b.flip();
+        while (b.hasRemaining()) {
+
+            ch.write(b);
+        }
+        b.clear();
+    }
+
+    // Memory maps a binary graph file and returns a CSRGraph that reads directly from the mapping
+    public static CSRGraph open(String binFile) throws IOException {
+
+        Path path = Paths.get(binFile);
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            if (ch.read(h, 0) < HEADER_BYTES || h.getInt(0) != MAGIC) {
+
+                throw new IOException(binFile + " is not a binary graph file");
+            }
+            if (h.getInt(4) != VERSION) {
+
+                throw new IOException(binFile + " has unsupported version " + h.getInt(4));
+            }
+
+            int V = h.getInt(8);
+            int E = h.getInt(12);
+
+            if (V < 0 || E < 0) {
+
+                throw new IOException(binFile + " has a bad header: V = " + V + ", E = " + E);
+            }
+
+            long offsetsAt = HEADER_BYTES;
+            long offsetsLen = 4L * (V + 2);
+            long targetsAt = offsetsAt + offsetsLen;
+            long entriesLen = 8L * E;
+            long weightsAt = targetsAt + entriesLen;
+
+            if (ch.size() != weightsAt + entriesLen) {
+
+                throw new IOException(binFile + " is truncated or has the wrong size");
+            }
+            if (entriesLen > Integer.MAX_VALUE) {
+
+                throw new IOException(binFile + " has too many edges to map (" + E + ")");
+            }
+
+            // The mappings stay valid after the channel is closed
+            IntBuffer offsets = map(ch, offsetsAt, offsetsLen);
+            IntBuffer targets = map(ch, targetsAt, entriesLen);
+            check(binFile, V, E, offsets, targets);
+            return new CSRGraph(V, E, offsets, targets, map(ch, weightsAt, entriesLen));
+        }
+    }
+
+    // Checks that the offsets rise from 0 to 2E and that every target is a vertex, so a corrupt file is caught here
+    // and not as an IndexOutOfBoundsException deep inside a search. This reads the offsets and targets once
+    private static void check(String binFile, int V, int E, IntBuffer offsets, IntBuffer targets) throws IOException {
+
+        if (offsets.get(0) != 0) {
+
+            throw new IOException(binFile + " is corrupt: offsets do not start at 0");
+        }
+        for (int v = 0; v <= V; v++) {
+
+            if (offsets.get(v + 1) < offsets.get(v)) {
+
+                throw new IOException(binFile + " is corrupt: offsets decrease at vertex " + (v + 1));
+            }
+        }
+        if (offsets.get(V + 1) != 2 * E) {
+
+            throw new IOException(binFile + " is corrupt: offsets end at " + offsets.get(V + 1) + ", not 2E = " + 2L * E);
+        }
+        for (int i = 0; i < 2 * E; i++) {
+
+            int t = targets.get(i);
+
+            if (t < 1 || t > V) {
+
+                throw new IOException(binFile + " is corrupt: target " + t + " at entry " + i + " is not a vertex");
+            }
+        }
+    }
+
+    private static IntBuffer map(FileChannel ch, long at, long len) throws IOException {
+
+        return ch.map(FileChannel.MapMode.READ_ONLY, at, len).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    // Converts a text graph file into a binary graph file
+    public static void convert(String txtFile, String binFile) throws IOException {
+
+        EdgeList edges = EdgeFileReader.load(txtFile);
+        write(CSRGraph.fromEdges(edges.V, edges.E, edges.u, edges.v, edges.w), binFile);
+    }
+
+    // Converts the text file named by the first argument into the binary file named by the second
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 2) {
+
+            System.out.println("Usage: java BinaryGraphFile <graph.txt> <graph.bin>");
+            return;
+        }
+
+        long start = System.nanoTime();
+        convert(args[0], args[1]);
+        System.out.printf("Converted %s to %s in %.1f ms%n", args[0], args[1], (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        CSRGraph g = open(args[1]);
+        System.out.printf("Opened %d vertices and %d edges in %.3f ms%n", g.vertices(), g.edges(), (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,179 @@
+// Title: Boruvka's Minimum Spanning Tree Algorithm
+
+/*
+    Full Program Description:
+
+    Boruvka's algorithm builds the MST in rounds. In each round every component (at first every vertex on its own)
+    picks the lightest edge leaving it, and all those edges are added to the MST at once, joining the components
+    they connect. Each round at least halves the number of components, so there are at most log2(V) rounds, and the
+    work in a round is independent for every edge, which lets it use all the cores of a ForkJoinPool.
+
+    One round goes like this:
+
+        1. in parallel over the edges still alive, each edge u--v between different components offers its key
+           (weight in the high 32 bits, edge number in the low 32 bits, as in ParallelKruskal) to both components,
+           and best[c] keeps the smallest key offered to component c by compare-and-set on an AtomicLongArray
+        2. in parallel, the chosen edges are joined in a ConcurrentUnionFind, and an edge is kept if its union
+           succeeds, so an edge picked by both of its components is only kept once
+        3. in parallel, every vertex is relabelled with the root of its new component, and edges that now lie
+           inside one component are dropped for good
+
+    Because the keys break ties between equal weights by edge number, the MST is unique, and the edges found are
+    exactly those of ParallelKruskal. The chosen edges of a round can never make a cycle, so every union in step 2
+    for a different edge succeeds, whichever order the threads happen to make them in. The edges are returned sorted
+    by key, so in order of weight like Graph.MST_Kruskal, with fewer than V - 1 edges for a disconnected graph (a
+    spanning forest).
+
+    Run this class as a program to time it against ParallelKruskal on a graph file:
+
+        java Boruvka graph.txt|graph.bin [threads]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// This class computes minimum spanning trees with Boruvka's algorithm on several threads
+class Boruvka {
+
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final int V, E;
+    private final int[] u, v, w;
+    private final ForkJoinPool pool;
+    private int rounds;
+
+    // Constructor - takes the edges u[i]--v[i] of weight w[i] for i = 0..E-1, and the pool to run on
+    public Boruvka(int _V, int _E, int[] _u, int[] _v, int[] _w, ForkJoinPool _pool) {
+
+        V = _V;
+        E = _E;
+        u = _u;
+        v = _v;
+        w = _w;
+        pool = _pool;
+    }
+
+    // Computes the MST, or the spanning forest of a disconnected graph
+    public Edge[] mst() {
+
+        int[] comp = new int[V + 1]; // comp[x] is the root of the component containing x
+        int[] live = IntStream.range(0, E).toArray();
+        long[] chosen = new long[Math.max(0, V - 1)];
+        AtomicLongArray best = new AtomicLongArray(V + 1);
+        ConcurrentUnionFind sets = new ConcurrentUnionFind(V);
+        AtomicInteger count = new AtomicInteger();
+
+        for (int x = 0; x <= V; x++) {
+
+            comp[x] = x;
+        }
+
+        rounds = 0;
+        while (live.length > 0 && count.get() < V - 1) {
+
+            final int[] edges = live;
+            rounds++;
+
+            // 1. Lightest edge leaving every component
+            pool.submit(() -> IntStream.rangeClosed(0, V).parallel().forEach(x -> best.set(x, NONE))).join();
+            pool.submit(() -> IntStream.range(0, edges.length).parallel().forEach(i -> {
+
+                int e = edges[i];
+                int cu = comp[u[e]], cv = comp[v[e]];
+
+                if (cu != cv) {
+
+                    long key = ((long) w[e] << 32) | e;
+                    offer(best, cu, key);
+                    offer(best, cv, key);
+                }
+            })).join();
+
+            // 2. Join the components along their chosen edges
+            pool.submit(() -> IntStream.rangeClosed(1, V).parallel().forEach(x -> {
+
+                long key = best.get(x);
+
+                if (comp[x] == x && key != NONE && sets.union(u[(int) key], v[(int) key])) {
+
+                    chosen[count.getAndIncrement()] = key;
+                }
+            })).join();
+
+            // 3. Relabel the vertices and drop the edges inside a component
+            pool.submit(() -> IntStream.rangeClosed(1, V).parallel().forEach(x -> comp[x] = sets.find(x))).join();
+            live = pool.submit(() -> Arrays.stream(edges).parallel()
+                    .filter(e -> comp[u[e]] != comp[v[e]]).toArray()).join();
+        }
+
+        int n = count.get();
+        Arrays.sort(chosen, 0, n);
+
+        Edge[] mst = new Edge[n];
+        for (int i = 0; i < n; i++) {
+
+            int e = (int) chosen[i];
+            mst[i] = new Edge(u[e], v[e], w[e]);
+        }
+        return mst;
+    }
+
+    // Number of rounds the last call to mst() took
+    public int rounds() {
+
+        return rounds;
+    }
+
+    // Lowers best[c] to key if key is smaller, retrying when another thread changed it first
+    private static void offer(AtomicLongArray best, int c, long key) {
+
+        long cur;
+
+        do {
+            cur = best.get(c);
+        } while (key < cur && !best.compareAndSet(c, cur, key));
+    }
+
+    // Times Boruvka's algorithm against ParallelKruskal on the graph file named by the first argument
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java Boruvka <graph.txt|graph.bin> [threads]");
+            return;
+        }
+
+        Graph g = BinaryGraphFile.isBinary(args[0]) ? new Graph(BinaryGraphFile.open(args[0]))
+                : new Graph(EdgeFileReader.load(args[0]), GraphTracer.NONE);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        long start = System.nanoTime();
+        Edge[] kruskal = g.MST_KruskalParallel(pool);
+        long kruskalNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Edge[] boruvka = g.MST_Boruvka(pool);
+        long boruvkaNanos = System.nanoTime() - start;
+
+        boolean same = kruskal.length == boruvka.length;
+        long weight = 0;
+        for (int i = 0; i < boruvka.length; i++) {
+
+            weight += boruvka[i].wgt;
+            same = same && kruskal[i].u == boruvka[i].u && kruskal[i].v == boruvka[i].v;
+        }
+
+        System.out.println("V = " + g.vertices() + ", E = " + g.edges() + ", " + threads + " threads");
+        System.out.printf("ParallelKruskal  %10.1f ms%n", kruskalNanos / 1e6);
+        System.out.printf("Boruvka          %10.1f ms, %d edges, weight %d%n", boruvkaNanos / 1e6, boruvka.length,
+                weight);
+        System.out.println(same ? "Same edges as ParallelKruskal" : "Edges differ from ParallelKruskal");
+        pool.shutdown();
+    }
+}
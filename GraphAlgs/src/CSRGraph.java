@@ -0,0 +1,387 @@
+// Title: Compressed Sparse Row (CSR) Graph
+
+/*
+    Full Program Description:
+
+    This is an immutable weighted undirected graph stored in Compressed Sparse Row form. Instead of one Node object per
+    adjacency entry, as in GraphLists, every adjacency list is packed one after the other into three int arrays:
+
+        offsets[v] .. offsets[v + 1] - 1   are the positions of the neighbours of vertex v
+        targets[i]                         is the neighbour stored at position i
+        weights[i]                         is the weight of the edge to that neighbour
+
+    Each undirected edge u--v is stored twice, once as u -> v and once as v -> u, so targets[] and weights[] have 2E
+    entries. Vertices are numbered 1..V as in the rest of the programs, so offsets[] has V + 2 entries.
+
+    The neighbours of each vertex are kept in the same order as in GraphLists (most recently read edge first), so the
+    traversals below visit vertices in the same order as GraphLists.DF and GraphLists.BF.
+
+    The graph can be read from the same text file format as GraphLists and Graph (a "V E" line followed by E "u v wgt"
+    lines), built from edge arrays, copied from a GraphLists object with GraphLists.toCSR(), or mapped straight from a
+    binary graph file with BinaryGraphFile.open().
+*/
+
+// Import necessary libraries for I/O operations
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// This class stores a weighted undirected graph as three packed int arrays
+final class CSRGraph {
+
+    // V = number of vertices
+    // E = number of edges
+    // The arrays are held as IntBuffers so that they can either wrap int[] arrays on the
+    // heap or point straight into a memory mapped binary graph file (see BinaryGraphFile)
+    private final int V, E;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+
+    // Constructor - takes the packed arrays directly, they must not be changed afterwards
+    CSRGraph(int _V, int _E, int[] _offsets, int[] _targets, int[] _weights) {
+
+        this(_V, _E, IntBuffer.wrap(_offsets), IntBuffer.wrap(_targets), IntBuffer.wrap(_weights));
+    }
+
+    // Constructor - takes buffers of V + 2 offsets and 2E targets and weights
+    CSRGraph(int _V, int _E, IntBuffer _offsets, IntBuffer _targets, IntBuffer _weights) {
+
+        V = _V;
+        E = _E;
+        offsets = _offsets.asReadOnlyBuffer();
+        targets = _targets.asReadOnlyBuffer();
+        weights = _weights.asReadOnlyBuffer();
+    }
+
+    // Builds the graph from an edge list where edge e joins eu[e] and ev[e] with weight ew[e], for e = 0..E-1
+    public static CSRGraph fromEdges(int V, int E, int[] eu, int[] ev, int[] ew) {
+
+        int e, u, v;
+        int[] offsets = new int[V + 2];
+        int[] targets = new int[2 * E];
+        int[] weights = new int[2 * E];
+
+        // Count the degree of every vertex, shifted up by one so a prefix sum gives the start positions
+        for (e = 0; e < E; e++) {
+
+            offsets[eu[e] + 1]++;
+            offsets[ev[e] + 1]++;
+        }
+
+        for (v = 1; v <= V; v++) {
+
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Fill each list from the front, taking the edges in reverse so the last edge read comes first like in GraphLists
+        int[] next = new int[V + 1];
+        System.arraycopy(offsets, 0, next, 0, V + 1);
+
+        for (e = E - 1; e >= 0; e--) {
+
+            u = eu[e];
+            v = ev[e];
+
+            targets[next[u]] = v;
+            weights[next[u]++] = ew[e];
+
+            targets[next[v]] = u;
+            weights[next[v]++] = ew[e];
+        }
+
+        return new CSRGraph(V, E, offsets, targets, weights);
+    }
+
+    // Reads the graph from a text file in the usual "V E" then "u v wgt" format
+    public static CSRGraph load(String graphFile) throws IOException {
+
+        EdgeList edges = EdgeFileReader.load(graphFile);
+        return fromEdges(edges.V, edges.E, edges.u, edges.v, edges.w);
+    }
+
+    // Number of vertices
+    public int vertices() {
+
+        return V;
+    }
+
+    // Number of undirected edges
+    public int edges() {
+
+        return E;
+    }
+
+    // Number of neighbours of vertex v
+    public int degree(int v) {
+
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    // First position of the neighbours of v in targets[] and weights[]
+    public int begin(int v) {
+
+        return offsets.get(v);
+    }
+
+    // One past the last position of the neighbours of v
+    public int end(int v) {
+
+        return offsets.get(v + 1);
+    }
+
+    // Neighbour stored at position i
+    public int target(int i) {
+
+        return targets.get(i);
+    }
+
+    // Weight of the edge stored at position i
+    public int weight(int i) {
+
+        return weights.get(i);
+    }
+
+    // Depth First Traversal starting at vertex s, returns the discovery order, discovery and finish times and parents
+    public DFSTree DF(int s) {
+
+        return DF(s, new DFSTree(V));
+    }
+
+    // Depth First Traversal into a DFSTree left over from an earlier search, so nothing is allocated
+    // An explicit stack and a cursor into each adjacency list are used instead of recursion
+    public DFSTree DF(int s, DFSTree tree) {
+
+        int v, u, top, n, time;
+        int[] stack = tree.stack;
+        int[] cursor = tree.cursor;
+
+        tree.reset();
+        tree.source = s;
+
+        n = 0;
+        top = 0;
+        time = 0;
+        tree.order[n++] = s;
+        tree.discovery[s] = ++time;
+        cursor[s] = offsets.get(s);
+        stack[top++] = s;
+
+        while (top > 0) {
+
+            v = stack[top - 1];
+
+            // Move along v's list to the next unvisited neighbour
+            if (cursor[v] < offsets.get(v + 1)) {
+
+                u = targets.get(cursor[v]++);
+
+                if (tree.discovery[u] == 0) {
+
+                    tree.order[n++] = u;
+                    tree.discovery[u] = ++time;
+                    tree.parent[u] = v;
+                    cursor[u] = offsets.get(u);
+                    stack[top++] = u;
+                }
+            } else {
+
+                // All neighbours of v are done, go back to the vertex we came from
+                tree.finish[v] = ++time;
+                top--;
+            }
+        }
+
+        tree.count = n;
+        return tree;
+    }
+
+    // Breadth First Traversal starting at vertex s, returns the visit order, levels and parents
+    public BFSTree BF(int s) {
+
+        return BF(s, new BFSTree(V));
+    }
+
+    // Breadth First Traversal into a BFSTree left over from an earlier search, so nothing is allocated
+    // The order array doubles as the queue, since each vertex is added to it exactly once
+    public BFSTree BF(int s, BFSTree tree) {
+
+        int v, u, i, last, head, tail;
+        int[] order = tree.order;
+        int[] level = tree.level;
+        int[] parent = tree.parent;
+
+        tree.reset();
+        tree.source = s;
+
+        head = 0;
+        tail = 0;
+        level[s] = 0;
+        order[tail++] = s;
+
+        while (head < tail) {
+
+            v = order[head++];
+
+            for (i = offsets.get(v), last = offsets.get(v + 1); i < last; i++) {
+
+                u = targets.get(i);
+
+                if (level[u] < 0) {
+
+                    level[u] = level[v] + 1;
+                    parent[u] = v;
+                    order[tail++] = u;
+                }
+            }
+        }
+
+        tree.count = tail;
+        return tree;
+    }
+
+    // Prim's algorithm with an indexed heap, O(E log V)
+    // Grows a tree from vertex 1 and then from any vertex it could not reach, giving a spanning forest
+    public PrimResult MST_Prim() {
+
+        int v, u, w, i, last, root;
+        long[] key = new long[V + 1];
+        int[] parent = new int[V + 1];
+        int[] wgt = new int[V + 1];
+        int[] hPos = new int[V + 1];
+        boolean[] inTree = new boolean[V + 1];
+
+        for (v = 0; v <= V; v++) {
+
+            key[v] = Integer.MAX_VALUE;
+        }
+
+        DistHeap h = new DistHeap(V, key, hPos);
+
+        for (root = 1; root <= V; root++) {
+
+            if (inTree[root]) {
+
+                continue;
+            }
+
+            if (root == 1) {
+
+                key[root] = 0;
+            }
+            h.insert(root);
+
+            while (!h.isEmpty()) {
+
+                u = h.remove();
+                inTree[u] = true;
+
+                for (i = offsets.get(u), last = offsets.get(u + 1); i < last; i++) {
+                    v = targets.get(i);
+
+                    w = weights.get(i);
+
+                    if (!inTree[v] && w < key[v]) {
+                        key[v] = w;
+                        parent[v] = u;
+
+                        if (h.contains(v)) {
+
+                            h.decreaseKey(v);
+                        } else {
+
+                            h.insert(v);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (v = 0; v <= V; v++) {
+
+            wgt[v] = (int) key[v];
+        }
+
+        return new PrimResult(parent, wgt);
+    }
+
+    // Dijkstra's algorithm with an indexed heap, O(E log V)
+    public ShortestPathTree SPT_Dijkstra(int s) {
+
+        return SPT_Dijkstra(s, new DijkstraScratch(V));
+    }
+
+    // Dijkstra's algorithm into a DijkstraScratch left over from an earlier search, so nothing is allocated
+    // The returned tree is scratch.tree, which is only valid until the scratch is used again
+    public ShortestPathTree SPT_Dijkstra(int s, DijkstraScratch scratch) {
+
+        int u, v, i, last;
+        long d;
+        long[] dist = scratch.dist;
+        int[] parent = scratch.parent;
+        int[] order = scratch.order;
+        DistHeap h = scratch.heap;
+
+        scratch.reset();
+        scratch.tree.source = s;
+
+        dist[s] = 0;
+        order[scratch.count++] = s;
+        h.insert(s);
+
+        while (!h.isEmpty()) {
+
+            u = h.remove();
+
+            // Weights are not negative, so d < dist[v] never holds for a vertex that is already done
+            for (i = offsets.get(u), last = offsets.get(u + 1); i < last; i++) {
+                v = targets.get(i);
+                d = dist[u] + weights.get(i);
+
+                if (d < dist[v]) {
+
+                    if (dist[v] == Long.MAX_VALUE) {
+
+                        order[scratch.count++] = v;
+                    }
+                    dist[v] = d;
+                    parent[v] = u;
+
+                    if (h.contains(v)) {
+
+                        h.decreaseKey(v);
+                    } else {
+
+                        h.insert(v);
+                    }
+                }
+            }
+        }
+
+        return scratch.tree;
+    }
+
+    // Delta-stepping on the threads of pool, giving the same distances as SPT_Dijkstra, as a one-off query
+    // Each call builds a DeltaStepping, which copies the edges split into light and heavy ones in O(E) time and
+    // memory. For repeated queries with the same delta keep a DeltaStepping and call run(s) on it
+    public ShortestPathTree SPT_DeltaStepping(int s, long delta, ForkJoinPool pool) {
+
+        return new DeltaStepping(this, delta, pool).run(s);
+    }
+
+    // Shortest path from s to t by bidirectional Dijkstra, as a one-off query
+    // Each call allocates a PointToPoint with O(V) search arrays. For repeated queries keep a PointToPoint per thread
+    // instead, which reuses its arrays and only costs the vertices each query settles
+    public PathResult shortestPath(int s, int t) {
+
+        return new PointToPoint(this).bidirectional(s, t);
+    }
+
+    // Shortest path from s to t by A* with a consistent heuristic, for example Heuristic.euclidean(), as a one-off
+    // query like shortestPath(s, t), with PointToPoint.aStar() for repeated queries
+    public PathResult shortestPath(int s, int t, Heuristic h) {
+
+        return new PointToPoint(this).aStar(s, t, h);
+    }
+}
@@ -0,0 +1,247 @@
+// Title: Lock-Free Concurrent Union-Find
+
+/*
+    Full Program Description:
+
+    A disjoint set forest like UnionFindSets in KruskalTrees.java, but safe for any number of threads to call find,
+    union and sameSet on at once without locks. Elements are numbered 0..V, so vertices 1..V can be used directly.
+
+    parent[] is an AtomicIntegerArray and every change to it is a compare-and-set (CAS):
+
+        union by index  a union links the root with the larger number under the root with the smaller number, by a
+                        CAS of parent[root] from root to the new parent. If another thread linked that root first the
+                        CAS fails and the union starts again from the new roots. A root only ever points to a smaller
+                        number, so no thread can ever make a cycle.
+
+        path splitting  find(x) walks up from x, and at each step tries to point the vertex at its grandparent with a
+                        CAS. A failed CAS only means another thread has already shortened that step, so it is not
+                        retried. Pointing a vertex further up its own tree never changes which set it is in.
+
+    sameSet(a, b) needs care, because the roots of a and b can change while it runs. If find gives different roots it
+    checks that a's root is still a root; if so the two were in different sets at that moment, and otherwise it
+    tries again.
+
+    Threads never wait for each other: a thread can only have to retry because another thread's CAS succeeded, so
+    some thread always makes progress (lock-free).
+
+    Run this class as a program to stress test it, with many threads making random unions and checking sameSet at
+    the same time, comparing the result with a sequential union-find:
+
+        java ConcurrentUnionFind [V] [unions] [threads] [rounds]
+*/
+
+// Import necessary libraries
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// This class implements a disjoint set forest that many threads can use at once
+final class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger sets;
+
+    // Constructor - every element 0..V starts in a set of its own
+    public ConcurrentUnionFind(int V) {
+
+        parent = new AtomicIntegerArray(V + 1);
+        sets = new AtomicInteger(V);
+
+        for (int i = 0; i <= V; i++) {
+
+            parent.set(i, i);
+        }
+    }
+
+    // Root of the set containing x, shortening the path with path splitting on the way
+    public int find(int x) {
+
+        int p, gp;
+
+        while (true) {
+
+            p = parent.get(x);
+            if (p == x) {
+
+                return x;
+            }
+
+            gp = parent.get(p);
+            if (p != gp) {
+
+                parent.compareAndSet(x, p, gp);
+            }
+            x = p;
+        }
+    }
+
+    // Joins the sets containing a and b, returning false if they were already the same set
+    public boolean union(int a, int b) {
+
+        while (true) {
+
+            a = find(a);
+            b = find(b);
+
+            if (a == b) {
+
+                return false;
+            }
+
+            // Link the larger root under the smaller one
+            if (a > b) {
+
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (parent.compareAndSet(b, b, a)) {
+
+                sets.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    // Returns true if a and b are in the same set
+    public boolean sameSet(int a, int b) {
+
+        while (true) {
+
+            a = find(a);
+            b = find(b);
+
+            if (a == b) {
+
+                return true;
+            }
+            if (parent.get(a) == a) {
+
+                return false;
+            }
+        }
+    }
+
+    // Number of disjoint sets among 1..V, exact once no unions are running
+    public int count() {
+
+        return sets.get();
+    }
+
+    // Makes random unions on several threads at once and checks the sets against a sequential union-find
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+        int V = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int unions = args.length > 1 ? Integer.parseInt(args[1]) : V;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int failures = 0;
+
+        for (int round = 1; round <= rounds; round++) {
+
+            // Pairs drawn from a small range first, so the threads fight over the same few roots
+            SplittableRandom rnd = new SplittableRandom(round);
+            int[] a = new int[unions], b = new int[unions];
+
+            for (int i = 0; i < unions; i++) {
+
+                int range = i < unions / 4 ? Math.min(V, 64) : V;
+                a[i] = 1 + rnd.nextInt(range);
+                b[i] = 1 + rnd.nextInt(range);
+            }
+
+            ConcurrentUnionFind cuf = new ConcurrentUnionFind(V);
+            AtomicInteger joined = new AtomicInteger();
+            AtomicInteger wrong = new AtomicInteger();
+            List<Future<?>> tasks = new ArrayList<>();
+            long start = System.nanoTime();
+
+            for (int t = 0; t < threads; t++) {
+
+                int first = (int) ((long) unions * t / threads), last = (int) ((long) unions * (t + 1) / threads);
+
+                tasks.add(executor.submit(() -> {
+
+                    SplittableRandom check = new SplittableRandom(first);
+
+                    for (int i = first; i < last; i++) {
+
+                        if (cuf.union(a[i], b[i])) {
+
+                            joined.incrementAndGet();
+                        }
+
+                        // Anything this thread has joined must stay joined, whatever the other threads do
+                        int j = first + check.nextInt(i - first + 1);
+                        if (!cuf.sameSet(a[j], b[j]) || !cuf.sameSet(b[j], a[j])) {
+
+                            wrong.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+
+                task.get();
+            }
+            long nanos = System.nanoTime() - start;
+
+            // Sequential union-find on the same pairs
+            int[] ref = new int[V + 1];
+            int refSets = V;
+            for (int x = 0; x <= V; x++) {
+
+                ref[x] = x;
+            }
+            for (int i = 0; i < unions; i++) {
+
+                int ra = root(ref, a[i]), rb = root(ref, b[i]);
+
+                if (ra != rb) {
+
+                    ref[Math.max(ra, rb)] = Math.min(ra, rb);
+                    refSets--;
+                }
+            }
+
+            // Same partition: every element has the same root in both, since both keep the smallest number as root
+            for (int x = 1; x <= V; x++) {
+
+                if (cuf.find(x) != root(ref, x)) {
+
+                    wrong.incrementAndGet();
+                }
+            }
+            if (cuf.count() != refSets || joined.get() != V - refSets) {
+
+                wrong.incrementAndGet();
+            }
+
+            failures += wrong.get();
+            System.out.printf("Round %d: %d unions on %d threads in %.1f ms, %d sets, %s%n", round, unions, threads,
+                    nanos / 1e6, cuf.count(), wrong.get() == 0 ? "matches sequential union-find" : wrong.get()
+                            + " errors");
+        }
+
+        executor.shutdown();
+        System.out.println(failures == 0 ? "All rounds passed" : failures + " errors");
+    }
+
+    private static int root(int[] ref, int x) {
+
+        while (ref[x] != x) {
+
+            ref[x] = ref[ref[x]];
+            x = ref[x];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,76 @@
+// Title: Console Output for the Graph Algorithms
+
+/*
+    This GraphTracer prints every event to System.out in the format the PrimLists and KruskalTrees programs have always
+    used, with vertices shown as letters (1 = A, 2 = B, ...).
+*/
+
+// This class prints the step by step trace of the graph algorithms to the console
+class ConsoleTracer implements GraphTracer {
+
+    public void message(String text) {
+
+        System.out.print(text);
+    }
+
+    public void readEdge(int u, int v, int wgt) {
+
+        System.out.println("Edge " + toChar(u) + "--(" + wgt + ")--" + toChar(v));
+    }
+
+    public void dfVisit(int prev, int v) {
+
+        System.out.print("\nDF just visited vertex " + toChar(v) + " along " + toChar(prev) + "--" + toChar(v));
+    }
+
+    public void bfVisit(int prev, int v) {
+
+        System.out.print("\nBFS visited vertex " + toChar(v));
+    }
+
+    public void acceptEdge(int u, int v, int wgt) {
+
+        System.out.print("Inserting Edge to MST: \n\n");
+        System.out.print("Edge " + toChar(u) + "--" + wgt + "--" + toChar(v) + "\n");
+    }
+
+    public void union(int root1, int root2, int[] treeParent) {
+
+        sets(SetPartition.of(treeParent));
+        System.out.println("\nTree of Vertices: \n");
+        trees(treeParent);
+        System.out.println();
+    }
+
+    // Prints each set, in the order its lowest numbered vertex appears
+    public void sets(SetPartition partition) {
+
+        for (int k = 0; k < partition.count; ++k) {
+
+            System.out.print("\nSet { ");
+
+            for (int i = partition.start[k]; i < partition.start[k + 1]; ++i) {
+
+                System.out.print(toChar(partition.members[i]) + " ");
+            }
+            System.out.print("}  ");
+        }
+        System.out.print("\n");
+    }
+
+    // Prints the parent of every vertex in the union-find trees
+    private void trees(int[] treeParent) {
+
+        for (int i = 1; i < treeParent.length; ++i) {
+
+            System.out.print(toChar(i) + "->" + toChar(treeParent[i]) + "  ");
+        }
+        System.out.print("\n");
+    }
+
+    // Convert vertex number into character for pretty printing
+    private char toChar(int u) {
+
+        return (char) (u + 64);
+    }
+}
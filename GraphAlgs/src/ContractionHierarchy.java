@@ -0,0 +1,751 @@
+// Title: Contraction Hierarchy Index for Fast Shortest Path Queries
+
+/*
+    Full Program Description:
+
+    A contraction hierarchy answers shortest path queries on a fixed graph in a small fraction of the time of
+    Dijkstra's algorithm, by doing most of the work once, ahead of time.
+
+    Preprocessing (build) removes the vertices one at a time, least important first. When a vertex v is removed
+    (contracted), every pair of its remaining neighbours u and w whose shortest path might run through v is joined by
+    a shortcut edge u--w of weight wgt(u, v) + wgt(v, w), which remembers v as its middle vertex. A shortcut is not
+    needed if a short Dijkstra search from u that avoids v (the witness search) already finds a path to w that is no
+    longer. The order of removal is picked with a priority queue keyed by
+
+        edge difference + contracted neighbours = (shortcuts v would need - edges v has) + neighbours already removed
+
+    which favours vertices that add few shortcuts and spreads the removals evenly over the graph. Priorities are kept
+    up to date lazily: when a vertex comes off the queue its priority is worked out again, and if it is no longer the
+    smallest it goes back in.
+
+    The index keeps, for every vertex, only the edges and shortcuts to neighbours removed after it (its "upward"
+    edges), in CSR form like CSRGraph, with a middle vertex for each (0 for an original edge).
+
+    A query runs Dijkstra's algorithm upwards from s and upwards from t, and the shortest path is the best
+    dist(s, x) + dist(t, x) over the vertices x both searches reach. A side stops once its smallest waiting distance
+    is no better than the best path found. A vertex is not expanded (stalled) if a higher neighbour already gives it
+    a shorter distance, since its upward edges cannot then be on the shortest path. Both searches only go up, so they
+    settle a few hundred vertices even on graphs with millions. Paths are rebuilt by replacing each shortcut by its
+    two halves until only original edges are left.
+
+    A shortcut's weight is the length of a whole path, which can be far more than any one edge, so the weights of the
+    upward edges are kept as longs.
+
+    The index is saved little-endian in the style of BinaryGraphFile, so open() can memory map it. The long weights
+    come straight after the header, where they are 8-byte aligned:
+
+        magic     'CHIX'
+        version   2
+        V         number of vertices
+        A         number of upward edges
+        weights   A longs
+        offsets   V + 2 ints
+        targets   A ints
+        middles   A ints
+
+    Run this class as a program to build an index, save it, map it back and time queries on it:
+
+        java ContractionHierarchy graph.txt|graph.bin index.ch [queries]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// This class holds the upward edges of a contraction hierarchy and builds, saves and opens them
+final class ContractionHierarchy {
+
+    static final int MAGIC = 0x58494843; // "CHIX" when read as little-endian bytes
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+
+    // Most vertices a witness search may settle, while ordering and while contracting
+    static final int WITNESS_SETTLE_ORDER = 50;
+    static final int WITNESS_SETTLE_CONTRACT = 500;
+
+    private final int V, A;
+    private final IntBuffer offsets, targets, middles;
+    private final LongBuffer weights;
+
+    // Statistics of build(), 0 for an index that was opened from a file
+    private long buildNanos;
+    private int shortcuts;
+
+    private ContractionHierarchy(int _V, int _A, IntBuffer _offsets, IntBuffer _targets, LongBuffer _weights,
+                                 IntBuffer _middles) {
+
+        V = _V;
+        A = _A;
+        offsets = _offsets.asReadOnlyBuffer();
+        targets = _targets.asReadOnlyBuffer();
+        weights = _weights.asReadOnlyBuffer();
+        middles = _middles.asReadOnlyBuffer();
+    }
+
+    // Number of vertices
+    public int vertices() {
+
+        return V;
+    }
+
+    // Number of upward edges and shortcuts
+    public int arcs() {
+
+        return A;
+    }
+
+    // Number of shortcuts added by build()
+    public int shortcuts() {
+
+        return shortcuts;
+    }
+
+    // Time build() took in nanoseconds
+    public long buildNanos() {
+
+        return buildNanos;
+    }
+
+    // Contracts every vertex of g and returns the index
+    public static ContractionHierarchy build(CSRGraph g) {
+
+        long start = System.nanoTime();
+        Builder b = new Builder(g);
+        ContractionHierarchy ch = b.run();
+
+        ch.buildNanos = System.nanoTime() - start;
+        ch.shortcuts = b.shortcuts;
+        return ch;
+    }
+
+    // Writes the index to a file that open() can map
+    public void save(String indexFile) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(Paths.get(indexFile), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer b = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            b.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(A);
+
+            // Each long as its low then its high half, which is the long itself in little-endian order
+            for (int i = 0; i < A; i++) {
+
+                BinaryGraphFile.put(ch, b, (int) weights.get(i));
+                BinaryGraphFile.put(ch, b, (int) (weights.get(i) >>> 32));
+            }
+
+            for (IntBuffer section : new IntBuffer[] {offsets, targets, middles}) {
+
+                for (int i = 0; i < section.limit(); i++) {
+
+                    BinaryGraphFile.put(ch, b, section.get(i));
+                }
+            }
+            BinaryGraphFile.flush(ch, b);
+        }
+    }
+
+    // Memory maps an index file written by save()
+    public static ContractionHierarchy open(String indexFile) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(Paths.get(indexFile), StandardOpenOption.READ)) {
+
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            if (ch.read(h, 0) < HEADER_BYTES || h.getInt(0) != MAGIC) {
+
+                throw new IOException(indexFile + " is not a contraction hierarchy index");
+            }
+            if (h.getInt(4) != VERSION) {
+
+                throw new IOException(indexFile + " has unsupported version " + h.getInt(4));
+            }
+
+            int V = h.getInt(8);
+            int A = h.getInt(12);
+            long offsetsLen = 4L * (V + 2);
+            long arcsLen = 4L * A;
+            long at = HEADER_BYTES;
+
+            if (ch.size() != at + 2 * arcsLen + offsetsLen + 2 * arcsLen) {
+
+                throw new IOException(indexFile + " is truncated or has the wrong size");
+            }
+
+            LongBuffer w = ch.map(FileChannel.MapMode.READ_ONLY, at, 2 * arcsLen).order(ByteOrder.LITTLE_ENDIAN)
+                    .asLongBuffer();
+            IntBuffer o = map(ch, at += 2 * arcsLen, offsetsLen);
+            IntBuffer t = map(ch, at += offsetsLen, arcsLen);
+            IntBuffer m = map(ch, at + arcsLen, arcsLen);
+            return new ContractionHierarchy(V, A, o, t, w, m);
+        }
+    }
+
+    private static IntBuffer map(FileChannel ch, long at, long len) throws IOException {
+
+        return ch.map(FileChannel.MapMode.READ_ONLY, at, len).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    // Position of the upward edge x -> y, or -1 if x has none
+    private int arc(int x, int y) {
+
+        for (int i = offsets.get(x), last = offsets.get(x + 1); i < last; i++) {
+
+            if (targets.get(i) == y) {
+
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Contracts the vertices of a graph one by one, keeping the graph still left in growable adjacency arrays
+    private static final class Builder {
+
+        private final int V;
+        private int[][] nbr, mid; // arcs of every vertex to the vertices not yet contracted
+        private long[][] wgt;
+        private final int[] deg;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbours;
+        int shortcuts;
+
+        // Order of contraction
+        private final long[] priority;
+        private final int[] orderPos;
+        private final DistHeap order;
+
+        // Witness search, dist[] entries count where seen[] == stamp
+        private final long[] dist;
+        private final int[] seen, hPos;
+        private final DistHeap heap;
+        private int stamp;
+
+        Builder(CSRGraph g) {
+
+            V = g.vertices();
+            nbr = new int[V + 1][];
+            wgt = new long[V + 1][];
+            mid = new int[V + 1][];
+            deg = new int[V + 1];
+            contracted = new boolean[V + 1];
+            contractedNeighbours = new int[V + 1];
+            priority = new long[V + 1];
+            orderPos = new int[V + 1];
+            order = new DistHeap(V, priority, orderPos);
+            dist = new long[V + 1];
+            seen = new int[V + 1];
+            hPos = new int[V + 1];
+            heap = new DistHeap(V, dist, hPos);
+
+            // Copy the graph without self loops, keeping only the lightest of any parallel edges
+            for (int v = 1; v <= V; v++) {
+
+                int n = g.degree(v);
+                nbr[v] = new int[Math.max(n, 1)];
+                wgt[v] = new long[Math.max(n, 1)];
+                mid[v] = new int[Math.max(n, 1)];
+
+                for (int i = g.begin(v); i < g.end(v); i++) {
+
+                    if (g.target(i) != v) {
+
+                        addArc(v, g.target(i), g.weight(i), 0);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy run() {
+
+            int v, n;
+
+            for (v = 1; v <= V; v++) {
+
+                priority[v] = priority(v);
+                order.insert(v);
+            }
+
+            while (!order.isEmpty()) {
+
+                v = order.remove();
+
+                // Lazy update: put v back if its priority has gone up past the next vertex
+                long p = priority(v);
+                if (!order.isEmpty() && p > priority[order.peek()]) {
+
+                    priority[v] = p;
+                    order.insert(v);
+                    continue;
+                }
+
+                contract(v);
+            }
+
+            // After contraction each vertex's lists hold exactly its upward arcs
+            int[] offsets = new int[V + 2];
+            for (v = 1; v <= V; v++) {
+
+                offsets[v + 1] = offsets[v] + deg[v];
+            }
+
+            int A = offsets[V + 1];
+            int[] targets = new int[A], middles = new int[A];
+            long[] weights = new long[A];
+
+            for (v = 1; v <= V; v++) {
+
+                n = deg[v];
+                System.arraycopy(nbr[v], 0, targets, offsets[v], n);
+                System.arraycopy(wgt[v], 0, weights, offsets[v], n);
+                System.arraycopy(mid[v], 0, middles, offsets[v], n);
+                nbr[v] = mid[v] = null;
+                wgt[v] = null;
+            }
+
+            return new ContractionHierarchy(V, A, IntBuffer.wrap(offsets), IntBuffer.wrap(targets),
+                    LongBuffer.wrap(weights), IntBuffer.wrap(middles));
+        }
+
+        // Edge difference plus the number of neighbours already contracted
+        private long priority(int v) {
+
+            return (long) shortcutsFor(v, false) - deg[v] + contractedNeighbours[v];
+        }
+
+        private void contract(int v) {
+
+            shortcutsFor(v, true);
+            contracted[v] = true;
+
+            for (int i = 0; i < deg[v]; i++) {
+
+                int u = nbr[v][i];
+                removeArc(u, v);
+                contractedNeighbours[u]++;
+            }
+        }
+
+        // Counts, or adds when add is true, the shortcuts needed between the neighbours of v
+        private int shortcutsFor(int v, boolean add) {
+
+            int count = 0, limit = add ? WITNESS_SETTLE_CONTRACT : WITNESS_SETTLE_ORDER;
+            int[] nv = nbr[v];
+            long[] wv = wgt[v];
+
+            for (int i = 0; i < deg[v]; i++) {
+
+                int u = nv[i];
+                long maxVia = 0;
+
+                if (i == deg[v] - 1) {
+
+                    break;
+                }
+                for (int j = i + 1; j < deg[v]; j++) {
+
+                    maxVia = Math.max(maxVia, wv[i] + wv[j]);
+                }
+
+                witness(u, v, maxVia, limit);
+
+                for (int j = i + 1; j < deg[v]; j++) {
+
+                    int w = nv[j];
+                    long via = wv[i] + wv[j];
+
+                    if (seen[w] != stamp || dist[w] > via) {
+
+                        count++;
+                        if (add) {
+
+                            addArc(u, w, via, v);
+                            addArc(w, u, via, v);
+                            shortcuts++;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Dijkstra from u over the vertices not contracted, avoiding v, until maxDist or the settle limit is passed
+        private void witness(int u, int v, long maxDist, int limit) {
+
+            heap.clear();
+            if (stamp == Integer.MAX_VALUE) {
+
+                Arrays.fill(seen, 0);
+                stamp = 0;
+            }
+            stamp++;
+
+            dist[u] = 0;
+            seen[u] = stamp;
+            heap.insert(u);
+
+            for (int settled = 0; !heap.isEmpty() && settled < limit; settled++) {
+
+                int x = heap.remove();
+
+                if (dist[x] > maxDist) {
+
+                    break;
+                }
+
+                for (int i = 0; i < deg[x]; i++) {
+
+                    int y = nbr[x][i];
+                    long d = dist[x] + wgt[x][i];
+
+                    if (y == v) {
+
+                        continue;
+                    }
+                    if (seen[y] != stamp) {
+
+                        seen[y] = stamp;
+                        dist[y] = d;
+                        heap.insert(y);
+                    } else if (d < dist[y] && heap.contains(y)) {
+
+                        dist[y] = d;
+                        heap.decreaseKey(y);
+                    }
+                }
+            }
+        }
+
+        // Adds the arc a -> b, or lowers the weight of the one already there
+        private void addArc(int a, int b, long w, int m) {
+
+            int[] na = nbr[a];
+
+            for (int i = 0; i < deg[a]; i++) {
+
+                if (na[i] == b) {
+
+                    if (w < wgt[a][i]) {
+
+                        wgt[a][i] = w;
+                        mid[a][i] = m;
+                    }
+                    return;
+                }
+            }
+
+            if (deg[a] == na.length) {
+
+                nbr[a] = Arrays.copyOf(na, 2 * deg[a]);
+                wgt[a] = Arrays.copyOf(wgt[a], 2 * deg[a]);
+                mid[a] = Arrays.copyOf(mid[a], 2 * deg[a]);
+            }
+            nbr[a][deg[a]] = b;
+            wgt[a][deg[a]] = w;
+            mid[a][deg[a]++] = m;
+        }
+
+        // Removes the arc a -> b by moving a's last arc into its place
+        private void removeArc(int a, int b) {
+
+            for (int i = 0; i < deg[a]; i++) {
+
+                if (nbr[a][i] == b) {
+
+                    int last = --deg[a];
+                    nbr[a][i] = nbr[a][last];
+                    wgt[a][i] = wgt[a][last];
+                    mid[a][i] = mid[a][last];
+                    return;
+                }
+            }
+        }
+    }
+
+    // Answers queries on a ContractionHierarchy, keeping its arrays between queries
+    // Not safe for several threads at once, each thread needs its own Query
+    static final class Query {
+
+        private final ContractionHierarchy ch;
+        private final long[] distF, distB;
+        private final int[] parentF, parentB, seenF, seenB, hPosF, hPosB;
+        private final DistHeap heapF, heapB;
+        private int stamp, settled;
+
+        // Path being unpacked, and the arcs still to unpack
+        private int[] out = new int[64];
+        private int outLength;
+        private int[] stack = new int[64];
+
+        Query(ContractionHierarchy _ch) {
+
+            ch = _ch;
+            int V = ch.V;
+            distF = new long[V + 1];
+            distB = new long[V + 1];
+            parentF = new int[V + 1];
+            parentB = new int[V + 1];
+            seenF = new int[V + 1];
+            seenB = new int[V + 1];
+            hPosF = new int[V + 1];
+            hPosB = new int[V + 1];
+            heapF = new DistHeap(V, distF, hPosF);
+            heapB = new DistHeap(V, distB, hPosB);
+        }
+
+        // Length of the shortest path from s to t, Long.MAX_VALUE if there is none
+        public long distance(int s, int t) {
+
+            int meet = search(s, t);
+            return meet == 0 ? Long.MAX_VALUE : distF[meet] + distB[meet];
+        }
+
+        // Shortest path from s to t with its vertices in the original graph
+        public PathResult path(int s, int t) {
+
+            int meet = search(s, t);
+
+            if (meet == 0) {
+
+                return new PathResult(s, t, Long.MAX_VALUE, new int[0], settled);
+            }
+
+            // The forward chain s .. meet is stored from meet back to s, so unpack it from its far end
+            int n = 0, x;
+
+            for (x = meet; x != s; x = parentF[x]) {
+
+                n++;
+            }
+
+            int[] up = new int[n + 1];
+            for (x = meet; n >= 0; x = parentF[x]) {
+
+                up[n--] = x;
+            }
+
+            outLength = 0;
+            append(s);
+            for (int i = 1; i < up.length; i++) {
+
+                unpack(up[i - 1], up[i]);
+            }
+            for (x = meet; x != t; x = parentB[x]) {
+
+                unpack(x, parentB[x]);
+            }
+
+            return new PathResult(s, t, distF[meet] + distB[meet], Arrays.copyOf(out, outLength), settled);
+        }
+
+        // Vertices settled by the last query
+        public int settled() {
+
+            return settled;
+        }
+
+        // Runs both upward searches and returns the best meeting vertex, or 0
+        private int search(int s, int t) {
+
+            long best = Long.MAX_VALUE;
+            int meet = 0;
+
+            heapF.clear();
+            heapB.clear();
+            if (stamp == Integer.MAX_VALUE) {
+
+                Arrays.fill(seenF, 0);
+                Arrays.fill(seenB, 0);
+                stamp = 0;
+            }
+            stamp++;
+            settled = 0;
+
+            distF[s] = 0;
+            parentF[s] = 0;
+            seenF[s] = stamp;
+            heapF.insert(s);
+            distB[t] = 0;
+            parentB[t] = 0;
+            seenB[t] = stamp;
+            heapB.insert(t);
+
+            while (true) {
+
+                boolean f = !heapF.isEmpty() && distF[heapF.peek()] < best;
+                boolean b = !heapB.isEmpty() && distB[heapB.peek()] < best;
+
+                if (!f && !b) {
+
+                    break;
+                }
+
+                // Alternate sides, taking whichever can still improve the best path
+                boolean forward = f && (!b || heapF.size() <= heapB.size());
+                long[] dist = forward ? distF : distB, other = forward ? distB : distF;
+                int[] parent = forward ? parentF : parentB, seen = forward ? seenF : seenB;
+                int[] otherSeen = forward ? seenB : seenF;
+                DistHeap heap = forward ? heapF : heapB;
+
+                int u = heap.remove();
+                settled++;
+
+                if (otherSeen[u] == stamp && dist[u] + other[u] < best) {
+
+                    best = dist[u] + other[u];
+                    meet = u;
+                }
+
+                if (stalled(u, dist, seen)) {
+
+                    continue;
+                }
+
+                for (int i = ch.offsets.get(u), last = ch.offsets.get(u + 1); i < last; i++) {
+
+                    int v = ch.targets.get(i);
+                    long d = dist[u] + ch.weights.get(i);
+
+                    if (seen[v] != stamp) {
+
+                        seen[v] = stamp;
+                        dist[v] = d;
+                        parent[v] = u;
+                        heap.insert(v);
+                    } else if (d < dist[v] && heap.contains(v)) {
+
+                        dist[v] = d;
+                        parent[v] = u;
+                        heap.decreaseKey(v);
+                    }
+                }
+            }
+            return meet;
+        }
+
+        // u is stalled if some higher neighbour already reached gives it a shorter distance than the search found
+        private boolean stalled(int u, long[] dist, int[] seen) {
+
+            for (int i = ch.offsets.get(u), last = ch.offsets.get(u + 1); i < last; i++) {
+
+                int v = ch.targets.get(i);
+
+                if (seen[v] == stamp && dist[v] + ch.weights.get(i) < dist[u]) {
+
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Appends the original vertices after a on the path of arc a--b
+        private void unpack(int a, int b) {
+
+            int top = 0;
+
+            stack[top++] = a;
+            stack[top++] = b;
+
+            while (top > 0) {
+
+                int y = stack[--top];
+                int x = stack[--top];
+
+                int i = ch.arc(x, y);
+                if (i < 0) {
+
+                    i = ch.arc(y, x);
+                }
+                int m = ch.middles.get(i);
+
+                if (m == 0) {
+
+                    append(y);
+                } else {
+
+                    // x .. m is done before m .. y, so it goes on the stack last
+                    if (top + 4 > stack.length) {
+
+                        stack = Arrays.copyOf(stack, 2 * stack.length);
+                    }
+                    stack[top++] = m;
+                    stack[top++] = y;
+                    stack[top++] = x;
+                    stack[top++] = m;
+                }
+            }
+        }
+
+        private void append(int v) {
+
+            if (outLength == out.length) {
+
+                out = Arrays.copyOf(out, 2 * outLength);
+            }
+            out[outLength++] = v;
+        }
+    }
+
+    // Builds the index for a graph file, saves and maps it, and times random queries against Dijkstra's algorithm
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+
+            System.out.println("Usage: java ContractionHierarchy <graph.txt|graph.bin> <index.ch> [queries]");
+            return;
+        }
+
+        CSRGraph g = BinaryGraphFile.isBinary(args[0]) ? BinaryGraphFile.open(args[0]) : CSRGraph.load(args[0]);
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        ContractionHierarchy built = build(g);
+        System.out.printf("Contracted %d vertices in %.1f ms, %d shortcuts, %d upward arcs%n", g.vertices(),
+                built.buildNanos() / 1e6, built.shortcuts(), built.arcs());
+
+        long start = System.nanoTime();
+        built.save(args[1]);
+        ContractionHierarchy ch = open(args[1]);
+        System.out.printf("Saved and mapped %s in %.1f ms%n", args[1], (System.nanoTime() - start) / 1e6);
+
+        Query q = new Query(ch);
+        PointToPoint p2p = new PointToPoint(g);
+        SplittableRandom rnd = new SplittableRandom(1);
+        int V = g.vertices(), wrong = 0, checks = Math.min(queries, 200);
+        long settled = 0, sum = 0;
+
+        // Check the answers against bidirectional Dijkstra first
+        for (int i = 0; i < checks; i++) {
+
+            int s = 1 + rnd.nextInt(V), t = 1 + rnd.nextInt(V);
+            PathResult p = q.path(s, t);
+            wrong += p.distance == p2p.bidirectional(s, t).distance ? 0 : 1;
+        }
+
+        int[] src = new int[queries], dst = new int[queries];
+        for (int i = 0; i < queries; i++) {
+
+            src[i] = 1 + rnd.nextInt(V);
+            dst[i] = 1 + rnd.nextInt(V);
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+
+            sum += q.distance(src[i], dst[i]);
+            settled += q.settled();
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%d distance queries, %.1f us/query, %d settled/query (checksum %d)%n", queries,
+                nanos / 1e3 / queries, settled / queries, sum);
+        System.out.println(wrong == 0 ? "All checked distances match Dijkstra" : wrong + " distances differ");
+    }
+}
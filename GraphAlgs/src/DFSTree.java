@@ -0,0 +1,58 @@
+// Title: Result of a Depth First Search
+
+/*
+    Holds the output of one depth first search from a source vertex s.
+
+    order[0] .. order[count - 1] are the reached vertices in the order they were discovered.
+    discovery[v] and finish[v] are the times v was first reached and when all its neighbours were done, counted on
+    one clock that starts at 1 (both are 0 if v was not reached).
+    parent[v] is the vertex v was reached from (0 for the source and for vertices that were not reached).
+
+    stack[] and cursor[] are scratch space for the search itself, so that the search needs no recursion and a
+    BFSTree-style reuse of the same DFSTree allocates nothing.
+*/
+
+// This class stores the discovery order, discovery and finish times and parents of a depth first search
+class DFSTree {
+
+    public int source;
+    public int count;
+    public int[] order;
+    public int[] discovery;
+    public int[] finish;
+    public int[] parent;
+
+    // Scratch space used while searching
+    int[] stack;
+    int[] cursor;
+
+    // Constructor - allocates room for a graph with V vertices
+    public DFSTree(int V) {
+
+        order = new int[V];
+        discovery = new int[V + 1];
+        finish = new int[V + 1];
+        parent = new int[V + 1];
+        stack = new int[V];
+        cursor = new int[V + 1];
+        count = 0;
+    }
+
+    // Clears the marks left by the previous search, only touching the vertices it reached
+    public void reset() {
+
+        for (int i = 0; i < count; i++) {
+
+            discovery[order[i]] = 0;
+            finish[order[i]] = 0;
+            parent[order[i]] = 0;
+        }
+        count = 0;
+    }
+
+    // Returns true if the search reached v
+    public boolean reached(int v) {
+
+        return discovery[v] != 0;
+    }
+}
@@ -0,0 +1,413 @@
+// Title: Delta-Stepping Parallel Single Source Shortest Paths
+
+/*
+    Full Program Description:
+
+    Dijkstra's algorithm settles one vertex at a time, so it cannot use more than one core. Delta-stepping (Meyer
+    and Sanders) relaxes whole groups of vertices at once. Vertices waiting to be settled are kept in buckets by
+    distance, bucket i holding those with i * delta <= dist < (i + 1) * delta, and the buckets are emptied in order.
+
+    The edges are split by weight into light (w <= delta) and heavy (w > delta). When bucket i is processed:
+
+        1. every vertex in it relaxes its light edges, all in parallel. A light edge can put a vertex back into
+           bucket i, so this repeats until bucket i stays empty, keeping track of every vertex that was in it
+        2. those vertices then relax their heavy edges once, in parallel. A heavy edge always lands in a later
+           bucket, so it never has to be relaxed twice
+
+    The tentative distances are an AtomicLongArray and a relaxation lowers dist[v] by compare-and-set, so two
+    threads reaching the same vertex keep the smaller distance. Each thread also collects the vertices it improved,
+    and these are put into their new buckets by the calling thread between phases. A vertex may be listed in more
+    than one bucket; an entry whose distance has since dropped below its bucket is simply skipped.
+
+    Every waiting distance lies within maxWeight of the bucket being processed, so only maxWeight / delta + 2
+    buckets are needed, used round and round. With delta = 1 this is Dijkstra's algorithm with a bucket queue, and
+    with delta >= maxWeight it is close to Bellman-Ford. suggestDelta() picks maxWeight / average degree, a usual
+    starting point. The distances are always exactly those of Dijkstra's algorithm whatever delta is.
+
+    The constructor copies the edges of the graph split into light and heavy ones, which costs O(E) time and memory,
+    so a DeltaStepping should be kept and reused for all the queries with the same delta. Its dist[] and buckets are
+    reused by every run, so one object can only run one query at a time.
+
+    parent[] is filled in after the distances are known, by a breadth first search from s along the edges u--v with
+    dist[u] + w = dist[v]. Where there are several shortest paths it may pick a different one from SPT_Dijkstra.
+
+    Run this class as a program to time it against SPT_Dijkstra and check the distances match:
+
+        java DeltaStepping graph.txt|graph.bin [delta] [threads] [sources]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// This class finds shortest path trees with the delta-stepping algorithm on several threads
+class DeltaStepping {
+
+    // Vertex lists at most this long are relaxed by the calling thread alone
+    static final int SEQUENTIAL = 1 << 10;
+
+    // Most buckets allowed, which bounds how small delta can be for the heaviest edge
+    static final int MAX_BUCKETS = 1 << 22;
+
+    private final CSRGraph g;
+    private final int V;
+    private final long delta;
+    private final ForkJoinPool pool;
+
+    // Each vertex's edges with the light ones first: light edges of v are at begin(v) .. split[v] - 1 and heavy
+    // edges at split[v] .. end(v) - 1
+    private final int[] targets, weights, split;
+    private final int buckets;
+
+    // State of one run
+    private final AtomicLongArray dist;
+    private final int[][] bucket;
+    private final int[] bucketSize;
+    private final int[] mark; // mark[v] == stamp while v is in the list being built
+    private int stamp;
+
+    // Constructor - splits the edges of g around delta, which must be at least 1
+    public DeltaStepping(CSRGraph _g, long _delta, ForkJoinPool _pool) {
+
+        if (_delta < 1) {
+
+            throw new IllegalArgumentException("delta must be at least 1, not " + _delta);
+        }
+
+        g = _g;
+        V = g.vertices();
+        delta = _delta;
+        pool = _pool;
+
+        int A = g.end(V);
+        targets = new int[A];
+        weights = new int[A];
+        split = new int[V + 1];
+        pool.submit(() -> IntStream.rangeClosed(1, V).parallel().forEach(this::splitEdges)).join();
+
+        int maxWeight = pool.submit(() -> IntStream.range(0, A).parallel().map(i -> weights[i]).max().orElse(0))
+                .join();
+        if (maxWeight / delta + 2 > MAX_BUCKETS) {
+
+            throw new IllegalArgumentException("delta " + delta + " is too small for edge weights up to " + maxWeight);
+        }
+        buckets = (int) (maxWeight / delta + 2);
+
+        dist = new AtomicLongArray(V + 1);
+        bucket = new int[buckets][];
+        bucketSize = new int[buckets];
+        mark = new int[V + 1];
+    }
+
+    // maxWeight / average degree, at least 1
+    public static long suggestDelta(CSRGraph g) {
+
+        int maxWeight = 0;
+
+        for (int i = 0, A = g.end(g.vertices()); i < A; i++) {
+
+            maxWeight = Math.max(maxWeight, g.weight(i));
+        }
+        return Math.max(1, (long) maxWeight * g.vertices() / Math.max(1, 2L * g.edges()));
+    }
+
+    public long delta() {
+
+        return delta;
+    }
+
+    // Copies the edges of v into targets[] and weights[], light ones first
+    private void splitEdges(int v) {
+
+        int lo = g.begin(v), hi = g.end(v) - 1;
+
+        for (int i = g.begin(v); i < g.end(v); i++) {
+
+            int at = g.weight(i) <= delta ? lo++ : hi--;
+            targets[at] = g.target(i);
+            weights[at] = g.weight(i);
+        }
+        split[v] = lo;
+    }
+
+    // Shortest path tree from s
+    public ShortestPathTree run(int s) {
+
+        long[] d = distances(s);
+        return new ShortestPathTree(s, d, parents(s, d));
+    }
+
+    // Shortest distances from s, Long.MAX_VALUE for vertices that cannot be reached
+    public long[] distances(int s) {
+
+        if (s < 1 || s > V) {
+
+            throw new IllegalArgumentException("Vertex " + s + " is not in the graph");
+        }
+
+        int[] settled = new int[16];
+        int[] frontier = new int[16];
+        long waiting, cur;
+        int n, f, b;
+
+        pool.submit(() -> IntStream.rangeClosed(0, V).parallel().forEach(v -> dist.set(v, Long.MAX_VALUE))).join();
+        Arrays.fill(bucketSize, 0);
+
+        dist.set(s, 0);
+        add(0, s);
+        waiting = 1;
+        cur = 0;
+
+        while (waiting > 0) {
+
+            // Find the next bucket with anything in it
+            while (bucketSize[(int) (cur % buckets)] == 0) {
+
+                cur++;
+            }
+            b = (int) (cur % buckets);
+            n = 0;
+
+            // 1. Light edges, until no vertex falls back into this bucket
+            while (bucketSize[b] > 0) {
+
+                nextStamp();
+                f = 0;
+                for (int i = 0; i < bucketSize[b]; i++) {
+
+                    int v = bucket[b][i];
+
+                    // Skip entries whose vertex has since moved to a lower bucket, and repeats
+                    if (dist.get(v) / delta == cur && mark[v] != stamp) {
+
+                        mark[v] = stamp;
+                        if (f == frontier.length) {
+
+                            frontier = Arrays.copyOf(frontier, 2 * f);
+                        }
+                        frontier[f++] = v;
+                    }
+                }
+                waiting -= bucketSize[b];
+                bucketSize[b] = 0;
+
+                if (n + f > settled.length) {
+
+                    settled = Arrays.copyOf(settled, Math.max(2 * settled.length, n + f));
+                }
+                System.arraycopy(frontier, 0, settled, n, f);
+                n += f;
+
+                waiting += place(relax(frontier, f, true));
+            }
+
+            // 2. Heavy edges of every vertex settled in this bucket, each vertex once
+            nextStamp();
+            f = 0;
+            for (int i = 0; i < n; i++) {
+
+                if (mark[settled[i]] != stamp) {
+
+                    mark[settled[i]] = stamp;
+                    settled[f++] = settled[i];
+                }
+            }
+            waiting += place(relax(settled, f, false));
+            cur++;
+        }
+
+        long[] result = new long[V + 1];
+        pool.submit(() -> IntStream.rangeClosed(0, V).parallel().forEach(v -> result[v] = dist.get(v))).join();
+        return result;
+    }
+
+    // Relaxes the light or heavy edges of vs[0 .. n-1], returning per chunk the vertices whose distance went down
+    private int[][] relax(int[] vs, int n, boolean light) {
+
+        if (n <= SEQUENTIAL) {
+
+            return new int[][] {relax(vs, 0, n, light)};
+        }
+
+        int c = Math.min(pool.getParallelism() * 4, (n + SEQUENTIAL - 1) / SEQUENTIAL);
+        return pool.submit(() -> IntStream.range(0, c).parallel()
+                .mapToObj(k -> relax(vs, (int) ((long) n * k / c), (int) ((long) n * (k + 1) / c), light))
+                .toArray(int[][]::new)).join();
+    }
+
+    private int[] relax(int[] vs, int lo, int hi, boolean light) {
+
+        int[] improved = new int[16];
+        int count = 0;
+
+        for (int k = lo; k < hi; k++) {
+
+            int u = vs[k];
+            long du = dist.get(u);
+            int first = light ? g.begin(u) : split[u];
+            int last = light ? split[u] : g.end(u);
+
+            for (int i = first; i < last; i++) {
+
+                int v = targets[i];
+                long d = du + weights[i];
+                long old;
+
+                // Lower dist[v] to d unless another thread has already made it as small
+                do {
+                    old = dist.get(v);
+                } while (d < old && !dist.compareAndSet(v, old, d));
+
+                if (d < old) {
+
+                    if (count == improved.length) {
+
+                        improved = Arrays.copyOf(improved, 2 * count);
+                    }
+                    improved[count++] = v;
+                }
+            }
+        }
+        return Arrays.copyOf(improved, count);
+    }
+
+    // Puts every improved vertex, once, into the bucket of its new distance and returns how many were added
+    private int place(int[][] improved) {
+
+        int added = 0;
+
+        nextStamp();
+        for (int[] vs : improved) {
+
+            for (int v : vs) {
+
+                if (mark[v] != stamp) {
+
+                    mark[v] = stamp;
+                    add((int) (dist.get(v) / delta % buckets), v);
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    private void add(int b, int v) {
+
+        if (bucket[b] == null) {
+
+            bucket[b] = new int[16];
+        } else if (bucketSize[b] == bucket[b].length) {
+
+            bucket[b] = Arrays.copyOf(bucket[b], 2 * bucketSize[b]);
+        }
+        bucket[b][bucketSize[b]++] = v;
+    }
+
+    private void nextStamp() {
+
+        if (stamp == Integer.MAX_VALUE) {
+
+            Arrays.fill(mark, 0);
+            stamp = 0;
+        }
+        stamp++;
+    }
+
+    // Parents by a breadth first search from s over the edges that lie on shortest paths
+    private int[] parents(int s, long[] d) {
+
+        int[] parent = new int[V + 1];
+        int[] queue = new int[V];
+        boolean[] seen = new boolean[V + 1];
+        int head = 0, tail = 0;
+
+        seen[s] = true;
+        queue[tail++] = s;
+
+        while (head < tail) {
+
+            int u = queue[head++];
+
+            for (int i = g.begin(u); i < g.end(u); i++) {
+
+                int v = g.target(i);
+
+                if (!seen[v] && d[u] + g.weight(i) == d[v]) {
+
+                    seen[v] = true;
+                    parent[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return parent;
+    }
+
+    // Times delta-stepping against SPT_Dijkstra from random sources and checks every distance
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java DeltaStepping <graph.txt|graph.bin> [delta] [threads] [sources]");
+            return;
+        }
+
+        CSRGraph g = BinaryGraphFile.isBinary(args[0]) ? BinaryGraphFile.open(args[0]) : CSRGraph.load(args[0]);
+        long delta = args.length > 1 && !args[1].equals("auto") ? Long.parseLong(args[1]) : suggestDelta(g);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int sources = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        DeltaStepping ds = new DeltaStepping(g, delta, pool);
+        SplittableRandom rnd = new SplittableRandom(1);
+        DijkstraScratch scratch = new DijkstraScratch(g.vertices());
+        long dijkstraNanos = 0, deltaNanos = 0, start;
+        int wrong = 0;
+
+        for (int q = 0; q < sources; q++) {
+
+            int s = 1 + rnd.nextInt(g.vertices());
+
+            start = System.nanoTime();
+            long[] expected = g.SPT_Dijkstra(s, scratch).dist;
+            dijkstraNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ShortestPathTree spt = ds.run(s);
+            deltaNanos += System.nanoTime() - start;
+
+            for (int v = 1; v <= g.vertices(); v++) {
+
+                boolean parentOk = v == s || !spt.reaches(v)
+                        || spt.dist[spt.parent[v]] + minWeight(g, spt.parent[v], v) == spt.dist[v];
+                wrong += spt.dist[v] == expected[v] && parentOk ? 0 : 1;
+            }
+        }
+
+        System.out.println("V = " + g.vertices() + ", E = " + g.edges() + ", delta = " + delta + ", " + threads
+                + " threads, " + sources + " sources");
+        System.out.printf("SPT_Dijkstra   %10.1f ms/source%n", dijkstraNanos / 1e6 / sources);
+        System.out.printf("DeltaStepping  %10.1f ms/source%n", deltaNanos / 1e6 / sources);
+        System.out.println(wrong == 0 ? "All distances match Dijkstra" : wrong + " vertices differ from Dijkstra");
+        pool.shutdown();
+    }
+
+    // Weight of the lightest edge u--v
+    private static long minWeight(CSRGraph g, int u, int v) {
+
+        long w = Long.MAX_VALUE;
+
+        for (int i = g.begin(u); i < g.end(u); i++) {
+
+            if (g.target(i) == v) {
+
+                w = Math.min(w, g.weight(i));
+            }
+        }
+        return w;
+    }
+}
@@ -0,0 +1,56 @@
+// Title: Reusable Arrays for Dijkstra's Algorithm
+
+/*
+    Holds the dist[], parent[] and heap arrays one run of Dijkstra's algorithm needs, so that they can be passed back
+    into CSRGraph.SPT_Dijkstra(s, scratch) and reused instead of being allocated for every search.
+
+    dist[v] is the length of the shortest path from the source to v (Long.MAX_VALUE if v was not reached).
+    parent[v] is the vertex before v on that path (0 for the source and for vertices that were not reached).
+    order[0] .. order[count - 1] are the vertices the search reached, in the order it first reached them, so reset()
+    only has to touch those.
+
+    tree wraps dist[] and parent[] as a ShortestPathTree. It is only valid until the scratch is used again, so copy
+    the arrays out of it if they need to be kept.
+*/
+
+// This class stores the working arrays of Dijkstra's algorithm for reuse
+class DijkstraScratch {
+
+    public final long[] dist;
+    public final int[] parent;
+    public final int[] order;
+    public int count;
+    public final ShortestPathTree tree;
+
+    final int[] hPos;
+    final DistHeap heap;
+
+    // Constructor - allocates room for a graph with V vertices
+    public DijkstraScratch(int V) {
+
+        dist = new long[V + 1];
+        parent = new int[V + 1];
+        order = new int[V];
+        hPos = new int[V + 1];
+        heap = new DistHeap(V, dist, hPos);
+        tree = new ShortestPathTree(0, dist, parent);
+        count = 0;
+
+        for (int v = 0; v <= V; v++) {
+
+            dist[v] = Long.MAX_VALUE;
+        }
+    }
+
+    // Clears the distances and parents left by the previous search, only touching the vertices it reached
+    public void reset() {
+
+        heap.clear();
+        for (int i = 0; i < count; i++) {
+
+            dist[order[i]] = Long.MAX_VALUE;
+            parent[order[i]] = 0;
+        }
+        count = 0;
+    }
+}
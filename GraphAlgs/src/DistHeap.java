@@ -0,0 +1,134 @@
+// Title: Indexed Min Heap of Vertices Keyed by long Distances
+
+/*
+    This is the same idea as the Heap class in PrimLists.java, but the priorities are held in a long[] array
+    so that shortest path distances can grow past Integer.MAX_VALUE without overflowing.
+
+    a[] holds the vertices in heap order starting at position 1, and hPos[v] is the position of vertex v in a[]
+    (0 when v is not in the heap). Because hPos lets us find any vertex in O(1), a vertex whose distance has been
+    lowered can be moved up the heap with decreaseKey(v) instead of being inserted a second time.
+
+    The heap only keeps references to dist[] and hPos[], so one heap can be cleared and reused for many searches.
+*/
+
+// This class implements an indexed binary min heap of vertices ordered by dist[v]
+class DistHeap {
+
+    private int[] a; // heap array
+    private int[] hPos; // hPos[a[k]] == k
+    private long[] dist; // dist[v] = priority of v
+    private int N; // heap size
+
+    // The heap constructor gets passed:
+    //    1. maximum heap size (the number of vertices)
+    //    2. reference to the dist[] array
+    //    3. reference to the hPos[] array, which must be all zeros
+    public DistHeap(int maxSize, long[] _dist, int[] _hPos) {
+
+        N = 0;
+        a = new int[maxSize + 1];
+        dist = _dist;
+        hPos = _hPos;
+    }
+
+    public boolean isEmpty() {
+
+        return N == 0;
+    }
+
+    public int size() {
+
+        return N;
+    }
+
+    // Returns true if v is currently waiting in the heap
+    public boolean contains(int v) {
+
+        return hPos[v] != 0;
+    }
+
+    // Returns the vertex with the smallest distance without removing it
+    public int peek() {
+
+        return a[1];
+    }
+
+    // siftUp from position k. The key at position k may be smaller than that of its parent at k/2
+    private void siftUp(int k) {
+
+        int v = a[k];
+        long d = dist[v];
+
+        while (k > 1 && d < dist[a[k / 2]]) {
+
+            a[k] = a[k / 2];
+            hPos[a[k]] = k;
+            k = k / 2;
+        }
+        a[k] = v;
+        hPos[v] = k;
+    }
+
+    // Key of node at position k may be greater than that of its children and may need to be moved down
+    private void siftDown(int k) {
+
+        int v, j;
+        v = a[k];
+        long d = dist[v];
+
+        while (k <= N / 2) {
+
+            j = 2 * k;
+
+            if (j < N && dist[a[j]] > dist[a[j + 1]]) {
+                j++;
+            }
+            if (d <= dist[a[j]]) {
+                break;
+            }
+
+            a[k] = a[j];
+            hPos[a[k]] = k;
+            k = j;
+        }
+        a[k] = v;
+        hPos[v] = k;
+    }
+
+    public void insert(int v) {
+
+        a[++N] = v;
+        siftUp(N);
+    }
+
+    // Called after dist[v] has been lowered, moves v up to its new place in the heap
+    public void decreaseKey(int v) {
+
+        siftUp(hPos[v]);
+    }
+
+    // Removes and returns the vertex with the smallest distance
+    public int remove() {
+
+        int v = a[1];
+        hPos[v] = 0; // v is no longer in heap
+        a[1] = a[N];
+        a[N--] = 0;
+
+        if (N > 0) {
+
+            siftDown(1);
+        }
+        return v;
+    }
+
+    // Empties the heap so it can be reused, resetting hPos[] for anything still in it
+    public void clear() {
+
+        while (N > 0) {
+
+            hPos[a[N]] = 0;
+            a[N--] = 0;
+        }
+    }
+}
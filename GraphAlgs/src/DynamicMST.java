@@ -0,0 +1,500 @@
+// Title: Minimum Spanning Forest Kept Up to Date Under Edge Changes
+
+/*
+    Full Program Description:
+
+    Keeps the minimum spanning forest of a GraphLists correct while edges are added, removed and reweighted, without
+    running Prim's algorithm again after every change. The forest is built once with MST_Prim, then every change is
+    made through this class, which updates the graph and repairs the forest:
+
+        add u--v, or make a non-forest edge lighter
+            Cycle property: if u and v are already connected, the forest path between them plus u--v is a cycle, and
+            the heaviest edge on that cycle cannot be in the MST. The path is found by a breadth first search of the
+            forest from u, and if the new weight is below the heaviest path edge, that edge is swapped for u--v.
+            If u and v are in different trees, u--v joins them.
+
+        remove a forest edge u--v, or make it heavier
+            The edge is cut, splitting its tree in two. Both halves are searched at the same time, one vertex each in
+            turn, so the search stops as soon as the smaller half has been fully listed. Every graph edge leaving the
+            smaller half must lead to the other half, and the lightest of them joins the two halves again.
+
+        remove or reweight any other edge
+            A non-forest edge that gets heavier, or goes away, cannot change the forest.
+
+    Each change costs a search of one tree of the forest (and of the smaller half for a cut), instead of a rebuild of
+    the whole forest from every edge.
+
+    The forest edges are kept in slots, each slot holding the two ends and the weight of one edge, and every vertex
+    has a doubly linked list of the slots it belongs to, so edges are linked and cut in constant time.
+
+    Changes must be made through this class. Changing the graph directly makes the forest stale, which is detected
+    through GraphLists.modCount() and reported with a ConcurrentModificationException.
+
+    Run this class as a program to time random changes against rebuilding the MST:
+
+        java DynamicMST graph.txt|graph.bin [changes] [seed]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.SplittableRandom;
+
+// This class maintains the minimum spanning forest of a graph while its edges change
+class DynamicMST {
+
+    private final GraphLists g;
+    private final int V;
+    private int expectedModCount;
+
+    // Forest edge in slot s joins su[s] and sv[s] with weight sw[s]
+    // Half 2s belongs to su[s] and half 2s + 1 to sv[s], linked into each vertex's list by head[], next[], prev[]
+    private final int[] su, sv, sw;
+    private final int[] head, next, prev;
+    private final int[] free;
+    private int freeTop;
+    private int count;
+    private long weight;
+
+    // Scratch space for the searches, a vertex is marked by setting mark[] to the current epoch
+    private final int[] mark, parentHalf, queueA, queueB;
+    private int epoch;
+
+    // Constructor - builds the minimum spanning forest of g with Prim's algorithm
+    public DynamicMST(GraphLists _g) {
+
+        g = _g;
+        V = g.vertices();
+
+        int slots = Math.max(1, V - 1);
+        su = new int[slots];
+        sv = new int[slots];
+        sw = new int[slots];
+        next = new int[2 * slots];
+        prev = new int[2 * slots];
+        head = new int[V + 1];
+        free = new int[slots];
+        mark = new int[V + 1];
+        parentHalf = new int[V + 1];
+        queueA = new int[V];
+        queueB = new int[V];
+
+        Arrays.fill(head, -1);
+        for (int s = 0; s < slots; s++) {
+
+            free[freeTop++] = slots - 1 - s;
+        }
+
+        PrimResult r = g.MST_Prim(GraphLists.PRIM_HEAP);
+        for (int v = 1; v <= V; v++) {
+
+            if (r.parent[v] != 0) {
+
+                link(r.parent[v], v, r.wgt[v]);
+            }
+        }
+        expectedModCount = g.modCount();
+    }
+
+    // Total weight of the forest
+    public long weight() {
+
+        check();
+        return weight;
+    }
+
+    // Number of edges in the forest, V - 1 when the graph is connected
+    public int size() {
+
+        check();
+        return count;
+    }
+
+    // Returns true if an edge u--v is in the forest
+    public boolean inForest(int u, int v) {
+
+        check();
+        return slot(u, v) >= 0;
+    }
+
+    // The forest as a PrimResult, each tree hanging from its lowest numbered vertex
+    public PrimResult forest() {
+
+        int[] parent = new int[V + 1];
+        int[] wgt = new int[V + 1];
+
+        check();
+        newEpoch();
+
+        for (int r = 1; r <= V; r++) {
+
+            if (mark[r] != epoch) {
+
+                mark[r] = epoch;
+                int tail = 1;
+                queueA[0] = r;
+
+                for (int i = 0; i < tail; i++) {
+
+                    int x = queueA[i];
+
+                    for (int h = head[x]; h >= 0; h = next[h]) {
+
+                        int y = other(h);
+
+                        if (mark[y] != epoch) {
+
+                            mark[y] = epoch;
+                            parent[y] = x;
+                            wgt[y] = sw[h >> 1];
+                            queueA[tail++] = y;
+                        }
+                    }
+                }
+            }
+        }
+        return new PrimResult(parent, wgt);
+    }
+
+    // Adds the edge u--v to the graph, returns true if it went into the forest
+    public boolean addEdge(int u, int v, int wgt) {
+
+        check();
+        g.addEdge(u, v, wgt);
+        expectedModCount = g.modCount();
+
+        return u != v && offer(u, v, wgt);
+    }
+
+    // Removes the edge u--v from the graph (the lightest one if there are several), returns false if there is none
+    public boolean removeEdge(int u, int v) {
+
+        check();
+
+        int s = slot(u, v);
+
+        if (!g.removeEdge(u, v)) {
+
+            return false;
+        }
+        expectedModCount = g.modCount();
+
+        if (s >= 0) {
+
+            cut(s);
+            reconnect(u, v);
+        }
+        return true;
+    }
+
+    // Changes the weight of the edge u--v (the lightest one if there are several), returns false if there is none
+    public boolean updateWeight(int u, int v, int wgt) {
+
+        check();
+
+        int old = g.weight(u, v);
+        int s = slot(u, v);
+
+        if (!g.updateWeight(u, v, wgt)) {
+
+            return false;
+        }
+        expectedModCount = g.modCount();
+
+        if (s >= 0) {
+
+            // A lighter forest edge stays, a heavier one may now lose to another edge across the cut
+            if (wgt <= old) {
+
+                weight += wgt - sw[s];
+                sw[s] = wgt;
+            } else {
+
+                cut(s);
+                reconnect(u, v);
+            }
+        } else if (wgt < old && u != v) {
+
+            offer(u, v, wgt);
+        }
+        return true;
+    }
+
+    // Puts u--v into the forest if it joins two trees or is lighter than the heaviest edge on the path from u to v
+    private boolean offer(int u, int v, int wgt) {
+
+        if (!path(u, v)) {
+
+            link(u, v, wgt);
+            return true;
+        }
+
+        // Heaviest forest edge on the path, walking back from v to u
+        int heaviest = -1;
+        for (int x = v; x != u; x = other(parentHalf[x] ^ 1)) {
+
+            int s = parentHalf[x] >> 1;
+
+            if (heaviest < 0 || sw[s] > sw[heaviest]) {
+
+                heaviest = s;
+            }
+        }
+
+        if (wgt < sw[heaviest]) {
+
+            cut(heaviest);
+            link(u, v, wgt);
+            return true;
+        }
+        return false;
+    }
+
+    // Breadth first search of the forest from u, returns true if v is reached, recording in parentHalf[] the half
+    // edge each vertex was reached through
+    private boolean path(int u, int v) {
+
+        newEpoch();
+        mark[u] = epoch;
+
+        int tail = 1;
+        queueA[0] = u;
+
+        for (int i = 0; i < tail; i++) {
+
+            int x = queueA[i];
+
+            for (int h = head[x]; h >= 0; h = next[h]) {
+
+                int y = other(h);
+
+                if (mark[y] != epoch) {
+
+                    mark[y] = epoch;
+                    parentHalf[y] = h;
+
+                    if (y == v) {
+
+                        return true;
+                    }
+                    queueA[tail++] = y;
+                }
+            }
+        }
+        return false;
+    }
+
+    // After cutting the tree edge u--v, finds the lightest graph edge between the two halves and links it
+    private void reconnect(int u, int v) {
+
+        newEpoch();
+        int a = epoch;
+        newEpoch();
+        int b = epoch;
+
+        // Grow both halves one vertex at a time until one of them is complete
+        int headA = 0, tailA = 1, headB = 0, tailB = 1;
+        int[] small;
+        int smallCount, smallMark;
+
+        queueA[0] = u;
+        queueB[0] = v;
+        mark[u] = a;
+        mark[v] = b;
+
+        while (true) {
+
+            if (headA == tailA) {
+
+                small = queueA;
+                smallCount = tailA;
+                smallMark = a;
+                break;
+            }
+            tailA = expand(queueA[headA++], queueA, tailA, a);
+
+            if (headB == tailB) {
+
+                small = queueB;
+                smallCount = tailB;
+                smallMark = b;
+                break;
+            }
+            tailB = expand(queueB[headB++], queueB, tailB, b);
+        }
+
+        // Every graph edge leaving the smaller half goes to the other half
+        int bestU = 0, bestV = 0, bestW = Integer.MAX_VALUE;
+
+        for (int i = 0; i < smallCount; i++) {
+
+            int x = small[i];
+
+            for (GraphLists.Node n = g.adjacent(x); !g.isEnd(n); n = n.next) {
+
+                if (mark[n.vert] != smallMark && (bestU == 0 || n.wgt < bestW)) {
+
+                    bestU = x;
+                    bestV = n.vert;
+                    bestW = n.wgt;
+                }
+            }
+        }
+
+        if (bestU != 0) {
+
+            link(bestU, bestV, bestW);
+        }
+    }
+
+    // Adds the forest neighbours of x not yet marked to the queue, returns the new end of the queue
+    private int expand(int x, int[] queue, int tail, int m) {
+
+        for (int h = head[x]; h >= 0; h = next[h]) {
+
+            int y = other(h);
+
+            if (mark[y] != m) {
+
+                mark[y] = m;
+                queue[tail++] = y;
+            }
+        }
+        return tail;
+    }
+
+    // Slot of a forest edge u--v, or -1
+    private int slot(int u, int v) {
+
+        for (int h = head[u]; h >= 0; h = next[h]) {
+
+            if (other(h) == v) {
+
+                return h >> 1;
+            }
+        }
+        return -1;
+    }
+
+    // The vertex at the far end of half edge h
+    private int other(int h) {
+
+        return (h & 1) == 0 ? sv[h >> 1] : su[h >> 1];
+    }
+
+    private void link(int u, int v, int wgt) {
+
+        int s = free[--freeTop];
+
+        su[s] = u;
+        sv[s] = v;
+        sw[s] = wgt;
+        push(u, 2 * s);
+        push(v, 2 * s + 1);
+        count++;
+        weight += wgt;
+    }
+
+    private void cut(int s) {
+
+        unlink(su[s], 2 * s);
+        unlink(sv[s], 2 * s + 1);
+        free[freeTop++] = s;
+        count--;
+        weight -= sw[s];
+    }
+
+    private void push(int x, int h) {
+
+        prev[h] = -1;
+        next[h] = head[x];
+        if (head[x] >= 0) {
+
+            prev[head[x]] = h;
+        }
+        head[x] = h;
+    }
+
+    private void unlink(int x, int h) {
+
+        if (prev[h] >= 0) {
+
+            next[prev[h]] = next[h];
+        } else {
+
+            head[x] = next[h];
+        }
+        if (next[h] >= 0) {
+
+            prev[next[h]] = prev[h];
+        }
+    }
+
+    // Starts a new search, clearing the marks only when the epoch counter would overflow
+    private void newEpoch() {
+
+        if (epoch == Integer.MAX_VALUE) {
+
+            Arrays.fill(mark, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+    private void check() {
+
+        if (g.modCount() != expectedModCount) {
+
+            throw new ConcurrentModificationException("The graph was changed without going through DynamicMST");
+        }
+    }
+
+    // Applies random changes to the graph in the file, timing them against rebuilding the MST with Prim's algorithm
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java DynamicMST <graph.txt|graph.bin> [changes] [seed]");
+            return;
+        }
+
+        GraphLists g = BinaryGraphFile.isBinary(args[0]) ? new GraphLists(BinaryGraphFile.open(args[0]))
+                : new GraphLists(args[0], GraphTracer.NONE);
+        int changes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        SplittableRandom rnd = new SplittableRandom(args.length > 2 ? Long.parseLong(args[2]) : 1);
+        int V = g.vertices();
+
+        long start = System.nanoTime();
+        DynamicMST dyn = new DynamicMST(g);
+        System.out.printf("Built forest of %d edges, weight %d, in %.1f ms%n", dyn.size(), dyn.weight(),
+                (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        for (int i = 0; i < changes; i++) {
+
+            int u = 1 + rnd.nextInt(V);
+            int op = rnd.nextInt(3);
+
+            if (op == 0 || g.isEnd(g.adjacent(u))) {
+
+                dyn.addEdge(u, 1 + rnd.nextInt(V), 1 + rnd.nextInt(100));
+            } else if (op == 1) {
+
+                dyn.removeEdge(u, g.adjacent(u).vert);
+            } else {
+
+                dyn.updateWeight(u, g.adjacent(u).vert, 1 + rnd.nextInt(100));
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%d changes in %.1f ms, %.3f ms per change, forest weight %d%n", changes, nanos / 1e6,
+                nanos / 1e6 / Math.max(1, changes), dyn.weight());
+
+        start = System.nanoTime();
+        PrimResult r = g.MST_Prim(GraphLists.PRIM_HEAP);
+        System.out.printf("Rebuilt with MST_Prim in %.1f ms, weight %d%n", (System.nanoTime() - start) / 1e6,
+                r.weight);
+        System.out.println(r.weight == dyn.weight() ? "Weights match" : "Weights differ");
+    }
+}
@@ -0,0 +1,152 @@
+// Title: Fast Edge File Reader
+
+/*
+    Full Program Description:
+
+    This reads graph files in the usual text format (a "V E" line followed by E "u v wgt" lines) without creating a
+    String for every line. The file is memory mapped through a FileChannel in large windows and the integers are parsed
+    straight from the mapped bytes, so the only allocations are the arrays that hold the result.
+
+    EdgeFileReader.load() reads a whole file into an EdgeList of primitive arrays, which is what the GraphLists, Graph
+    and CSRGraph constructors are built from. Programs that do not want to hold every edge in memory can instead open
+    an EdgeFileReader themselves and call nextInt() to stream through the file one number at a time.
+*/
+
+// Import necessary libraries for I/O operations
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// This class parses the integers of an edge file directly from a memory mapped buffer
+final class EdgeFileReader implements Closeable {
+
+    // Size of each mapped window, a mapping cannot be larger than 2GB
+    private static final long WINDOW = 1L << 28;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long size; // size of the file in bytes
+    private long windowStart; // file position of the start of the current window
+    private MappedByteBuffer buf;
+
+    // Constructor - opens the file and maps the first window
+    public EdgeFileReader(String graphFile) throws IOException {
+
+        file = new RandomAccessFile(graphFile, "r");
+        channel = file.getChannel();
+        size = channel.size();
+        windowStart = 0;
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW, size));
+    }
+
+    // Size of the file in bytes
+    public long size() {
+
+        return size;
+    }
+
+    // Number of bytes read so far
+    public long position() {
+
+        return windowStart + buf.position();
+    }
+
+    // Returns the next byte of the file, or -1 at the end of the file
+    private int read() throws IOException {
+
+        if (!buf.hasRemaining()) {
+
+            // Move on to the next window of the file
+            windowStart += buf.limit();
+
+            if (windowStart >= size) {
+
+                return -1;
+            }
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, size - windowStart));
+        }
+        return buf.get() & 0xFF;
+    }
+
+    // Skips any whitespace and parses the next integer, one byte at a time
+    public int nextInt() throws IOException {
+
+        int c;
+        long n, limit, at;
+        boolean negative;
+
+        c = read();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+
+            c = read();
+        }
+
+        if (c == -1) {
+
+            throw new EOFException("Unexpected end of graph file after " + position() + " bytes");
+        }
+
+        negative = (c == '-');
+        if (negative) {
+
+            c = read();
+        }
+
+        if (c < '0' || c > '9') {
+
+            throw new IOException("Unexpected character '" + (char) c + "' in graph file at byte " + (position() - 1));
+        }
+
+        // Accumulate as a long and stop as soon as the number leaves the int range
+        at = position() - 1;
+        limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        n = 0;
+        while (c >= '0' && c <= '9') {
+
+            n = n * 10 + (c - '0');
+            if (n > limit) {
+
+                throw new IOException("Number too large for an int in graph file at byte " + at);
+            }
+            c = read();
+        }
+
+        return (int) (negative ? -n : n);
+    }
+
+    public void close() throws IOException {
+
+        channel.close();
+        file.close();
+    }
+
+    // Reads a whole edge file into primitive arrays
+    public static EdgeList load(String graphFile) throws IOException {
+
+        int V, E, e;
+        int[] eu, ev, ew;
+        long start = System.nanoTime();
+
+        try (EdgeFileReader in = new EdgeFileReader(graphFile)) {
+
+            V = in.nextInt();
+            E = in.nextInt();
+
+            eu = new int[E];
+            ev = new int[E];
+            ew = new int[E];
+
+            for (e = 0; e < E; e++) {
+
+                eu[e] = in.nextInt();
+                ev[e] = in.nextInt();
+                ew[e] = in.nextInt();
+            }
+
+            return new EdgeList(V, E, eu, ev, ew, in.position(), System.nanoTime() - start);
+        }
+    }
+}
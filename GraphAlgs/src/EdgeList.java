@@ -0,0 +1,38 @@
+// Title: Graph Stored as an Edge List
+
+/*
+    Holds the edges of a graph in three primitive arrays, as read by EdgeFileReader.load().
+    Vertices are numbered 1..V and edges 0..E-1. bytes and nanos record how much text was parsed and how long it took.
+*/
+
+// This class holds a graph as an edge list, edge e joins u[e] and v[e] with weight w[e] for e = 0..E-1
+final class EdgeList {
+
+    public final int V, E;
+    public final int[] u, v, w;
+    public final long bytes; // size of the text that was parsed
+    public final long nanos; // time taken to read it
+
+    public EdgeList(int _V, int _E, int[] _u, int[] _v, int[] _w, long _bytes, long _nanos) {
+
+        V = _V;
+        E = _E;
+        u = _u;
+        v = _v;
+        w = _w;
+        bytes = _bytes;
+        nanos = _nanos;
+    }
+
+    // Read throughput in megabytes per second
+    public double megabytesPerSecond() {
+
+        return (bytes / 1e6) / Math.max(nanos / 1e9, 1e-9);
+    }
+
+    // One line summary of how fast the file was read
+    public String throughput() {
+
+        return String.format("Read %d edges (%.1f MB) in %.1f ms, %.1f MB/s", E, bytes / 1e6, nanos / 1e6, megabytesPerSecond());
+    }
+}
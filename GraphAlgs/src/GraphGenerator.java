@@ -0,0 +1,502 @@
+// Title: Synthetic Large Graph Generator
+
+/*
+    Full Program Description:
+
+    Generates reproducible random graphs of any size and writes them either in the usual text format (a "V E" line
+    followed by "u v wgt" lines) or in the binary format of BinaryGraphFile, ready to be loaded by GraphLists, Graph
+    and CSRGraph. The same model, size and seed always give exactly the same graph.
+
+    The edges are streamed to the output as they are generated, so the memory used does not grow with the number of
+    edges:
+
+        erdos     Erdos-Renyi G(n, m): m edges between uniformly random pairs of distinct vertices, O(1) memory
+        rmat      R-MAT / Kronecker: each edge picks one quadrant of the adjacency matrix per bit of the vertex
+                  number with probabilities a, b, c, d, giving a skewed power-law degree distribution, O(1) memory
+        grid      rows x cols 2D grid, each vertex joined to its right and lower neighbours, O(1) memory
+        geometric random geometric graph: V random points in the unit square, joined when closer than a radius,
+                  found through a grid of cells of that size, O(V) memory for the points
+
+    Weights are random in 1..100, except for geometric graphs where the weight is the distance between the points
+    times COORD_SCALE, rounded up, so the straight line distance is a lower bound usable as an A* heuristic.
+
+    The text format needs E in its header before the edges, and the geometric model only knows E at the end, so the
+    header is written padded with spaces and filled in once all edges are out. The binary format needs the degree of
+    every vertex before any edge can be placed, so the model is run twice with the same seed: the first pass counts
+    degrees into the offsets array, and the second writes each edge straight into its place in the memory mapped file.
+
+    Run this class as a program to write a graph file:
+
+        java GraphGenerator erdos V E seed out.txt|out.bin
+        java GraphGenerator rmat scale E seed out.txt|out.bin
+        java GraphGenerator grid rows cols seed out.txt|out.bin
+        java GraphGenerator geometric V radius seed out.txt|out.bin
+*/
+
+// Import necessary libraries for I/O operations
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// This class is the base of the random graph models, and writes what they generate to files
+abstract class GraphGenerator {
+
+    // Receives the edges of a graph one at a time
+    interface EdgeSink {
+
+        void edge(int u, int v, int wgt) throws IOException;
+    }
+
+    // Scale from unit square distances to the integer weights of geometric graphs
+    static final double COORD_SCALE = 1000000.0;
+
+    protected final int V;
+    protected final long seed;
+
+    protected GraphGenerator(int _V, long _seed) {
+
+        V = _V;
+        seed = _seed;
+    }
+
+    // Number of vertices
+    public int vertices() {
+
+        return V;
+    }
+
+    // Sends every edge of the graph to the sink, always in the same order for the same seed
+    public abstract void generate(EdgeSink out) throws IOException;
+
+    // Erdos-Renyi graph with E edges between random pairs of distinct vertices
+    public static GraphGenerator erdosRenyi(int V, long E, long seed) {
+
+        return new GraphGenerator(V, seed) {
+
+            public void generate(EdgeSink out) throws IOException {
+
+                SplittableRandom rnd = new SplittableRandom(seed);
+                int u, v;
+
+                for (long e = 0; e < E; e++) {
+
+                    do {
+                        u = 1 + rnd.nextInt(V);
+                        v = 1 + rnd.nextInt(V);
+                    } while (u == v);
+
+                    out.edge(u, v, 1 + rnd.nextInt(100));
+                }
+            }
+        };
+    }
+
+    // R-MAT graph on 2^scale vertices with E edges and the usual Graph500 quadrant probabilities
+    public static GraphGenerator rmat(int scale, long E, long seed) {
+
+        return rmat(scale, E, 0.57, 0.19, 0.19, seed);
+    }
+
+    // R-MAT graph with quadrant probabilities a, b, c and d = 1 - a - b - c
+    public static GraphGenerator rmat(int scale, long E, double a, double b, double c, long seed) {
+
+        return new GraphGenerator(1 << scale, seed) {
+
+            public void generate(EdgeSink out) throws IOException {
+
+                SplittableRandom rnd = new SplittableRandom(seed);
+                int u, v, bit;
+                double p;
+
+                for (long e = 0; e < E; e++) {
+
+                    // Pick a quadrant for each bit of the two vertex numbers, skipping self loops
+                    do {
+                        u = 0;
+                        v = 0;
+
+                        for (bit = 0; bit < scale; bit++) {
+
+                            p = rnd.nextDouble();
+
+                            if (p >= a) {
+
+                                if (p < a + b) {
+
+                                    v |= 1 << bit;
+                                } else if (p < a + b + c) {
+
+                                    u |= 1 << bit;
+                                } else {
+
+                                    u |= 1 << bit;
+                                    v |= 1 << bit;
+                                }
+                            }
+                        }
+                    } while (u == v);
+
+                    out.edge(u + 1, v + 1, 1 + rnd.nextInt(100));
+                }
+            }
+        };
+    }
+
+    // rows x cols grid graph
+    public static GraphGenerator grid(int rows, int cols, long seed) {
+
+        return new GraphGenerator(rows * cols, seed) {
+
+            public void generate(EdgeSink out) throws IOException {
+
+                SplittableRandom rnd = new SplittableRandom(seed);
+
+                for (int r = 0; r < rows; r++) {
+
+                    for (int c = 0; c < cols; c++) {
+
+                        int x = r * cols + c + 1;
+
+                        if (c + 1 < cols) {
+
+                            out.edge(x, x + 1, 1 + rnd.nextInt(100));
+                        }
+                        if (r + 1 < rows) {
+
+                            out.edge(x, x + cols, 1 + rnd.nextInt(100));
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    // Random geometric graph of V points in the unit square joined when closer than radius
+    public static Geometric geometric(int V, double radius, long seed) {
+
+        return new Geometric(V, radius, seed);
+    }
+
+    // Random geometric graph, which also keeps the coordinates of its points for A* searches
+    static final class Geometric extends GraphGenerator {
+
+        private final double radius;
+        public final double[] x, y; // x[v], y[v] are the coordinates of vertex v
+
+        Geometric(int V, double _radius, long seed) {
+
+            super(V, seed);
+            radius = _radius;
+            x = new double[V + 1];
+            y = new double[V + 1];
+
+            SplittableRandom rnd = new SplittableRandom(seed);
+            for (int v = 1; v <= V; v++) {
+
+                x[v] = rnd.nextDouble();
+                y[v] = rnd.nextDouble();
+            }
+        }
+
+        public void generate(EdgeSink out) throws IOException {
+
+            // Cells per side, each at least radius wide, and no more than about V cells so memory stays O(V)
+            int k = Math.max(1, Math.min((int) (1.0 / radius), (int) Math.ceil(Math.sqrt(V))));
+            long cellCount = (long) k * k;
+
+            if (cellCount >= Integer.MAX_VALUE) {
+
+                throw new IllegalArgumentException("Too many cells for V = " + V + ": " + cellCount);
+            }
+            int cells = (int) cellCount;
+            int[] start = new int[cells + 1];
+            int[] members = new int[V];
+            int[] cellOf = new int[V + 1];
+            int v, c, i;
+
+            // Bucket the points by cell, counting sort style
+            for (v = 1; v <= V; v++) {
+
+                cellOf[v] = Math.min(k - 1, (int) (y[v] * k)) * k + Math.min(k - 1, (int) (x[v] * k));
+                start[cellOf[v] + 1]++;
+            }
+            for (c = 0; c < cells; c++) {
+
+                start[c + 1] += start[c];
+            }
+            int[] next = Arrays.copyOf(start, cells);
+            for (v = 1; v <= V; v++) {
+
+                members[next[cellOf[v]]++] = v;
+            }
+
+            // Compare each point with the later points of its own cell and all points of the cells to its
+            // right and below, so every close pair is found exactly once
+            int[] dr = {0, 0, 1, 1, 1};
+            int[] dc = {0, 1, -1, 0, 1};
+            double r2 = radius * radius;
+
+            for (c = 0; c < cells; c++) {
+
+                int row = c / k, col = c % k;
+
+                for (i = start[c]; i < start[c + 1]; i++) {
+
+                    int u = members[i];
+
+                    for (int d = 0; d < 5; d++) {
+
+                        int nr = row + dr[d], nc = col + dc[d];
+
+                        if (nr >= k || nc < 0 || nc >= k) {
+
+                            continue;
+                        }
+
+                        int n = nr * k + nc;
+                        int j = (d == 0) ? i + 1 : start[n];
+
+                        for (; j < start[n + 1]; j++) {
+
+                            int w = members[j];
+                            double dx = x[u] - x[w], dy = y[u] - y[w];
+                            double dd = dx * dx + dy * dy;
+
+                            if (dd < r2) {
+
+                                out.edge(u, w, Math.max(1, (int) Math.ceil(Math.sqrt(dd) * COORD_SCALE)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Counts the edges the model will generate, by running it once
+    public long countEdges() throws IOException {
+
+        final long[] n = new long[1];
+
+        generate(new EdgeSink() {
+
+            public void edge(int u, int v, int wgt) {
+
+                n[0]++;
+            }
+        });
+        return n[0];
+    }
+
+    // Generates the graph into an in-memory edge list
+    public EdgeList toEdgeList() throws IOException {
+
+        final int E = checkEdges(countEdges());
+        final int[] eu = new int[E], ev = new int[E], ew = new int[E];
+        final int[] n = new int[1];
+
+        generate(new EdgeSink() {
+
+            public void edge(int u, int v, int wgt) {
+
+                eu[n[0]] = u;
+                ev[n[0]] = v;
+                ew[n[0]++] = wgt;
+            }
+        });
+        return new EdgeList(V, E, eu, ev, ew, 0, 0);
+    }
+
+    private static int checkEdges(long E) throws IOException {
+
+        if (E > Integer.MAX_VALUE) {
+
+            throw new IOException("Too many edges for the graph file formats: " + E);
+        }
+        return (int) E;
+    }
+
+    // Writes the graph in the text format, in one pass
+    public void writeText(String txtFile) throws IOException {
+
+        final long[] n = new long[1];
+        final byte[] digits = new byte[12];
+
+        // Leave room in the header for E, it is filled in at the end
+        final byte[] header = new byte[40];
+        Arrays.fill(header, (byte) ' ');
+        header[header.length - 1] = '\n';
+
+        try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(txtFile), 1 << 20)) {
+
+            out.write(header);
+
+            generate(new EdgeSink() {
+
+                public void edge(int u, int v, int wgt) throws IOException {
+
+                    writeInt(out, digits, u);
+                    out.write(' ');
+                    writeInt(out, digits, v);
+                    out.write(' ');
+                    writeInt(out, digits, wgt);
+                    out.write('\n');
+                    n[0]++;
+                }
+            });
+        }
+
+        byte[] text = (V + " " + checkEdges(n[0])).getBytes();
+        System.arraycopy(text, 0, header, 0, text.length);
+
+        try (RandomAccessFile f = new RandomAccessFile(txtFile, "rw")) {
+
+            f.write(header);
+        }
+    }
+
+    // Writes a non-negative or negative int as decimal text without creating a String
+    private static void writeInt(OutputStream out, byte[] digits, int x) throws IOException {
+
+        int i = digits.length;
+        long n = x;
+
+        if (n < 0) {
+
+            out.write('-');
+            n = -n;
+        }
+        do {
+            digits[--i] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+
+        out.write(digits, i, digits.length - i);
+    }
+
+    // Writes the graph in the binary CSR format of BinaryGraphFile, in two passes
+    public void writeBinary(String binFile) throws IOException {
+
+        final int[] offsets = new int[V + 2];
+        final long[] n = new long[1];
+
+        // First pass: count the degree of every vertex
+        generate(new EdgeSink() {
+
+            public void edge(int u, int v, int wgt) {
+
+                offsets[u + 1]++;
+                offsets[v + 1]++;
+                n[0]++;
+            }
+        });
+
+        final int E = checkEdges(n[0]);
+        for (int v = 1; v <= V; v++) {
+
+            offsets[v + 1] += offsets[v];
+        }
+
+        long offsetsAt = BinaryGraphFile.HEADER_BYTES;
+        long targetsAt = offsetsAt + 4L * (V + 2);
+        long entriesLen = 8L * E;
+        long weightsAt = targetsAt + entriesLen;
+
+        if (entriesLen > Integer.MAX_VALUE) {
+
+            throw new IOException("Too many edges to map in one binary graph file: " + E);
+        }
+
+        try (RandomAccessFile f = new RandomAccessFile(binFile, "rw");
+             FileChannel ch = f.getChannel()) {
+
+            f.setLength(0);
+            f.setLength(weightsAt + entriesLen);
+
+            IntBuffer head = map(ch, 0, offsetsAt + 4L * (V + 2));
+            head.put(BinaryGraphFile.MAGIC).put(BinaryGraphFile.VERSION).put(V).put(E).put(offsets);
+
+            final IntBuffer targets = map(ch, targetsAt, entriesLen);
+            final IntBuffer weights = map(ch, weightsAt, entriesLen);
+
+            // Second pass: fill each list from the back, so the last edge generated comes first as in CSRGraph.fromEdges
+            final int[] next = new int[V + 1];
+            System.arraycopy(offsets, 1, next, 0, V + 1);
+
+            generate(new EdgeSink() {
+
+                public void edge(int u, int v, int wgt) {
+
+                    int i = --next[u];
+                    targets.put(i, v);
+                    weights.put(i, wgt);
+
+                    i = --next[v];
+                    targets.put(i, u);
+                    weights.put(i, wgt);
+                }
+            });
+        }
+    }
+
+    private static IntBuffer map(FileChannel ch, long at, long len) throws IOException {
+
+        MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_WRITE, at, len);
+        return b.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    // Builds the generator named on the command line and writes its graph to the file named last
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 5) {
+
+            System.out.println("Usage: java GraphGenerator erdos V E seed out.txt|out.bin");
+            System.out.println("       java GraphGenerator rmat scale E seed out.txt|out.bin");
+            System.out.println("       java GraphGenerator grid rows cols seed out.txt|out.bin");
+            System.out.println("       java GraphGenerator geometric V radius seed out.txt|out.bin");
+            return;
+        }
+
+        GraphGenerator gen;
+        long seed = Long.parseLong(args[3]);
+        String file = args[4];
+
+        if (args[0].equals("erdos")) {
+
+            gen = erdosRenyi(Integer.parseInt(args[1]), Long.parseLong(args[2]), seed);
+        } else if (args[0].equals("rmat")) {
+
+            gen = rmat(Integer.parseInt(args[1]), Long.parseLong(args[2]), seed);
+        } else if (args[0].equals("grid")) {
+
+            gen = grid(Integer.parseInt(args[1]), Integer.parseInt(args[2]), seed);
+        } else if (args[0].equals("geometric")) {
+
+            gen = geometric(Integer.parseInt(args[1]), Double.parseDouble(args[2]), seed);
+        } else {
+
+            System.out.println("Unknown model " + args[0]);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        if (file.endsWith(".bin")) {
+
+            gen.writeBinary(file);
+        } else {
+
+            gen.writeText(file);
+        }
+
+        System.out.printf("Wrote %s (%d vertices) in %.1f ms%n", file, gen.vertices(), (System.nanoTime() - start) / 1e6);
+    }
+}
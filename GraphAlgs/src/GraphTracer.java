@@ -0,0 +1,53 @@
+// Title: Tracing Hooks for the Graph Algorithms
+
+/*
+    The graph algorithms report what they are doing through this interface instead of printing it themselves.
+    Every method has an empty default, so GraphTracer.NONE costs nothing in the hot loops: the JIT compiler inlines the
+    empty calls away. ConsoleTracer prints the same step by step output that the programs have always shown.
+
+    Vertices are numbered 1..V, and 0 means "no vertex" (for example the previous vertex of a traversal's start).
+*/
+
+// This interface receives the events of reading a graph and running the algorithms on it
+interface GraphTracer {
+
+    // A tracer that ignores every event
+    GraphTracer NONE = new GraphTracer() {
+    };
+
+    // A heading or other text for the reader, printed as it is
+    default void message(String text) {
+    }
+
+    // Edge u--v with weight wgt was read from the graph file
+    default void readEdge(int u, int v, int wgt) {
+    }
+
+    // Depth first traversal reached v from prev
+    default void dfVisit(int prev, int v) {
+    }
+
+    // Breadth first traversal took v off the queue, it was reached from prev
+    default void bfVisit(int prev, int v) {
+    }
+
+    // A shortest path search found a shorter path to v through u, of length dist
+    default void relax(int u, int v, long dist) {
+    }
+
+    // Prim's algorithm added edge u--v with weight wgt to the tree, not printed by ConsoleTracer
+    default void primEdge(int u, int v, int wgt) {
+    }
+
+    // Kruskal's algorithm added edge u--v with weight wgt to the minimum spanning tree
+    default void acceptEdge(int u, int v, int wgt) {
+    }
+
+    // The sets with roots root1 and root2 were joined, treeParent[] is the union-find parent array afterwards
+    default void union(int root1, int root2, int[] treeParent) {
+    }
+
+    // The current union-find sets, grouped by set
+    default void sets(SetPartition partition) {
+    }
+}
@@ -0,0 +1,33 @@
+// Title: Distance Estimates for A* Searches
+
+/*
+    An A* search settles vertices in order of dist(s, v) + estimate(v, t) instead of dist(s, v) alone, so it heads
+    towards the target instead of spreading out evenly. The estimate must never be more than the real shortest
+    distance from v to t (admissible), and must not drop by more than w along any edge of weight w (consistent),
+    otherwise the search can return a path that is not the shortest. A straight line distance on a graph whose edge
+    weights are at least the straight line lengths of the edges has both properties.
+
+    Heuristic.NONE always estimates 0, which turns A* back into Dijkstra's algorithm.
+*/
+
+// This interface gives a lower bound on the distance from a vertex to the target of a search
+interface Heuristic {
+
+    // The estimate that is always 0
+    Heuristic NONE = (v, t) -> 0;
+
+    // Lower bound on the shortest distance from v to t
+    long estimate(int v, int t);
+
+    // Straight line distance between the points (x[v], y[v]) and (x[t], y[t]), times scale and rounded down
+    // Admissible when every edge weight is at least scale times the distance between its end points, as for
+    // GraphGenerator.geometric() graphs with scale = GraphGenerator.COORD_SCALE
+    static Heuristic euclidean(double[] x, double[] y, double scale) {
+
+        return (v, t) -> {
+
+            double dx = x[v] - x[t], dy = y[v] - y[t];
+            return (long) (Math.sqrt(dx * dx + dy * dy) * scale);
+        };
+    }
+}
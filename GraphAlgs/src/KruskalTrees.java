@@ -9,7 +9,7 @@
 
     The Edge class defines a data structure to represent an edge of a graph. It has three instance variables: u, v, and wgt (weight), which represent the two vertices that the edge connects, and the weight of the edge. It also has a default constructor, a parameterized constructor, a show() method that prints out an edge in a readable format, and a toChar() method that converts a vertex integer into a character for pretty printing.
 
-    The Heap class implements a heap data structure. It has four instance variables: h, N, heapS, and edge. h is an integer array that represents the heap. N is the number of vertices in the graph. heapS is the size of the heap. edge is an array that stores the edges of the graph, where edge[v].wgt is the priority of vertex v. The class has a constructor that takes the number of vertices and an array of edges as inputs. It initializes the heap array with indices of the edges array, and converts the heap array into a proper heap using the siftDown() method. The class also has a siftDown() method that moves a node down the heap until it is in a position where it is greater than or equal to its children, and a remove() method that removes the edge with the highest priority from the heap and returns its value.
+    The Heap class implements a heap data structure. It has four instance variables: h, N, heapS, and wgt. h is an integer array that represents the heap. N is the number of edges in the heap. heapS is the size of the heap. wgt is the array of edge weights of the graph, where wgt[e] is the priority of edge e. The class has a constructor that takes the number of edges and the array of weights as inputs. It initializes the heap array with the edge numbers 0..N-1, and converts the heap array into a proper heap using the siftDown() method. The class also has a siftDown() method that moves a node down the heap until it is in a position where it is greater than or equal to its children, and a remove() method that removes the edge with the highest priority from the heap and returns its value.
 
     The UnionFindSets class implements the Union-Find data structure, which is used to keep track of a partition of a set of elements into disjoint subsets. It has three instance variables: treeParent, rank, and N. treeParent is an array storing the parent of each vertex. rank is an array storing the rank of each vertex. N is the number of vertices in the Union-Find set. The class has a constructor that initializes each vertex as its own parent and with rank 0, and a findSet() method that returns the root vertex of the subset containing a given vertex. The class also has a union() method that combines two subsets into a single subset by connecting the roots of the subsets.
 
@@ -19,7 +19,9 @@
 
 // Import necessary libraries for I/O operations
 import java.io.*;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 // Define the Edge class
 class Edge { 
@@ -60,20 +62,21 @@ class Heap {
     // The private fields 
 	private int[] h; // An array to represent the heap
     int N, heapS; // The size of the heap
-    Edge[] edge; // An array to store edges, where edge[v].wgt is the priority of v
+    private int[] wgt; // The edge weights, where wgt[e] is the priority of edge e
 
-    // Constructor for the heap that takes in the number of vertices and an array of edges.
-    public Heap(int _N, Edge[] _edge) { 
+    // Constructor for the heap that takes in the number of edges and the array of their weights.
+    // Comparisons read the weights straight from the int array, with no Edge object in between.
+    public Heap(int _N, int[] _wgt) { 
         // Initialize the heap:
         int i;
-        heapS = N = _N; // The heap size is equal to the number of vertices
+        heapS = N = _N; // The heap size is equal to the number of edges
         h = new int[N+1]; // Initialize the heap array
-        edge = _edge; // Store the input edges in the class field
+        wgt = _wgt; // Store the edge weights in the class field
         
-        // Fill the heap array with the indices of the edges array.
-        for (i=0; i <= N; ++i) { 
+        // Fill positions 1..N of the heap array with the edge numbers 0..N-1.
+        for (i=1; i <= N; ++i) { 
 
-            h[i] = i;
+            h[i] = i - 1;
         }   
            
         // Convert the heap array into a proper heap using the siftDown operation.
@@ -98,14 +101,14 @@ class Heap {
             j = 2 * k; 
 
             // If the right child is smaller than the left child, move j to the right child.
-            if ((j < N) && (edge[h[j]].wgt > edge[h[j+1]].wgt)) { 
+            if ((j < N) && (wgt[h[j]] > wgt[h[j+1]])) { 
 
                 j++;
             } 
 
             // If the key of the child node is greater than or equal to the key of the current node,
             // we don't need to move anything else.
-            if (edge[h[j]].wgt >= edge[e].wgt) { 
+            if (wgt[h[j]] >= wgt[e]) { 
 
                 break;
             } 
@@ -138,29 +141,37 @@ class UnionFindSets {
 
     private int[] treeParent; // An array storing the parent of each vertex
     private int[] rank; // An array storing the rank of each vertex
+    private int[] size; // size[root] is the number of vertices in the set with that root
     private int N; // The number of vertices in the Union-Find set
+    private int sets; // The number of disjoint sets
 
     // Constructor - Initializes the Union-Find data structure with a given number of vertices V.
     public UnionFindSets(int V) {
 
         N = V; // Set the number of vertices
+        sets = V; // Every vertex starts in a set of its own
         treeParent = new int[V + 1]; // Initialize the parent array
         rank = new int[V + 1]; // Initialize the rank array
+        size = new int[V + 1]; // Initialize the size array
 
         // Initialize each vertex as its own parent and with rank 0
         for (int i = 0; i <= V; i++) {
 
             treeParent[i] = i;
             rank[i] = 0;
+            size[i] = 1;
         } 
 
     } 
 
     // FindSet - Returns the root vertex of the subset containing a given vertex.
+    // Uses path halving: every vertex on the way up is pointed at its grandparent,
+    // so repeated finds flatten the trees and take near-constant amortized time.
     public int findSet(int vertex) { 
         // Traverse the parent array until the root vertex is found.
         while (vertex != treeParent[vertex]) { 
 
+            treeParent[vertex] = treeParent[treeParent[vertex]];
             vertex = treeParent[vertex];
         } 
 
@@ -168,11 +179,10 @@ class UnionFindSets {
         return vertex;
     } 
 
-   // Unifies two sets by setting the parent of one tree as the root of another
+   // Unifies the sets containing set1 and set2
     public void union(int set1, int set2) {
-        // Get the parent of set2 and set its parent to the parent of set1
-        treeParent[findSet(set2)] = findSet(treeParent[set1]);
-        System.out.print("Union: (" + toChar(set1) + "," + toChar(set2) + "): ");
+        // Link the two roots, keeping the trees shallow by rank
+        unionByRank(set1, set2);
     }
 
     // Unifies two sets based on rank
@@ -181,17 +191,45 @@ class UnionFindSets {
         int u = findSet(set1); // Parent of set1
         int v = findSet(set2); // Parent of set2
 
+        // Already in the same set, nothing to do
+        if (u == v) {
+
+            return;
+        }
+
         // If u has a lower rank than v, set u's parent to v
         // If v has a lower rank than u, set v's parent to u
         // If both have the same rank, set v's parent to u and increment the rank of u
         if (rank[u] < rank[v]) {
             treeParent[u] = v;
+            size[v] += size[u];
         } else if (rank[u] > rank[v]) {
             treeParent[v] = u;
+            size[u] += size[v];
         } else {
             treeParent[v] = u;
+            size[u] += size[v];
             rank[u]++;
         }
+        sets--;
+    }
+
+    // Returns the number of vertices in the set containing the given vertex
+    public int size(int vertex) {
+
+        return size[findSet(vertex)];
+    }
+
+    // Returns the number of disjoint sets
+    public int count() {
+
+        return sets;
+    }
+
+    // The parent array itself, for tracers to display, it must not be changed
+    int[] parents() {
+
+        return treeParent;
     }
     
     // Displays the trees in the Union Find data structure
@@ -206,40 +244,17 @@ class UnionFindSets {
         System.out.print("\n");
     } 
 
-    // Displays the sets in the Union Find data structure
-    public void showSets() { 
-
-        int u, root;
-        int[] shown = new int[N+1];
-        
-        for (u = 1; u <= N; ++u) { 
-            // For each vertex u, find its root and display its set if it hasn't been shown yet
-            root = findSet(u);
-            
-            if(shown[root] != 1) { 
-
-                showSet(root);
-                shown[root] = 1;
-            }
-        } 
-        System.out.print("\n");
-    } 
+    // Groups the vertices by set in one linear pass, numbering the sets in the order their lowest numbered vertex
+    // appears
+    public SetPartition components() {
 
-    // Displays the set represented by the root vertex
-    private void showSet(int root) { 
- 
-        int v;
-        System.out.print("\nSet { ");
+        return SetPartition.of(treeParent);
+    }
 
-        for(v = 1; v <= N; ++v) { 
-            // For each vertex v, print it if its parent vertex is the root
-            if (findSet(v) == root) { 
+    // Displays the sets in the Union Find data structure
+    public void showSets() { 
 
-                System.out.print(toChar(v) + " ");
-            }
-        } 
-                
-        System.out.print("}  ");
+        new ConsoleTracer().sets(components());
     } 
 
     // Display edge character
@@ -253,56 +268,109 @@ class UnionFindSets {
 class Graph {
     // V = number of vertices
     // E = number of edges
-    // edge = array of all edges in the graph
-    // mst = minimum spanning tree of the graph
+    // eu, ev, ew = the edges in primitive arrays, edge e joins eu[e] and ev[e] with weight ew[e] for e = 0..E-1
+    // mst = minimum spanning tree of the graph, the only place Edge objects are made
     private int V, E;
-    private Edge[] edge;
+    private int[] eu, ev, ew;
     private Edge[] mst;        
+    private GraphTracer tracer; // receives the steps of the algorithms
     
-    // Constructor that reads the graph from a text file
+    // Constructor that reads the graph from a text file and prints every step to the console
     public Graph(String graphFile) throws IOException {
+
+        this(graphFile, new ConsoleTracer());
+    }
+
+    // Reads the graph file with the fast EdgeFileReader, reporting each step to the given tracer
+    public Graph(String graphFile, GraphTracer tracer) throws IOException {
+
+        this(EdgeFileReader.load(graphFile), tracer);
+    }
+
+    // Builds the graph from an edge list that has already been read
+    public Graph(EdgeList edges, GraphTracer _tracer) {
         
-        int u, v, w, e;
+        int e;
+        tracer = _tracer;
         
-        FileReader fr = new FileReader(graphFile);
+        // Number of vertices and edges
+        V = edges.V;
+        E = edges.E;
+        
+        // The edge arrays are shared with the list, neither changes them
+        eu = edges.u;
+        ev = edges.v;
+        ew = edges.w;
+        
+        tracer.message("\nReading Edges from Text File: \n\n");
 
-        try (BufferedReader reader = new BufferedReader(fr)) {
-            
-            String splits = " +";  // multiple whitespace as delimiter
-            String line = reader.readLine();
-            String[] parts = line.split(splits);
-            
-            // Parse number of vertices and edges from the first line of the text file
-            V = Integer.parseInt(parts[0]);
-            E = Integer.parseInt(parts[1]);
-            
-            // Create the edge array
-            edge = new Edge[E + 1];
-            
-            // Read each edge from the text file and create an Edge object for it
-            System.out.println("\nReading Edges from Text File: \n");
-
-            for (e = 1; e <= E; ++e) { 
-
-                line = reader.readLine();
-                parts = line.split(splits);
-                u = Integer.parseInt(parts[0]);
-                v = Integer.parseInt(parts[1]); 
-                w = Integer.parseInt(parts[2]);
-                
-                System.out.println("Edge " + toChar(u) + "--(" + w + ")--" + toChar(v)); 
-                
-                // Create the edge object
-                edge[e] = new Edge(u, v, w);
-            } 
+        for (e = 0; e < E; ++e) { 
+
+            tracer.readEdge(eu[e], ev[e], ew[e]);
         } 
+
+        tracer.message("\n" + edges.throughput() + "\n");
     } 
 
+    // Builds the graph from a CSRGraph, for example one opened with BinaryGraphFile.open()
+    // Each edge is stored twice in the CSRGraph, so only the copy from the lower numbered vertex is kept
+    // Every edge is copied into an Edge object on the heap, so this does not keep the memory savings of a mapped file
+    public Graph(CSRGraph g) {
+
+        int u, v, i, e;
+        boolean loopSeen;
+
+        tracer = GraphTracer.NONE;
+
+        V = g.vertices();
+        E = g.edges();
+        eu = new int[E];
+        ev = new int[E];
+        ew = new int[E];
+
+        e = 0;
+        for (u = 1; u <= V; ++u) {
+
+            // A self loop u--u appears twice in u's own list, so take every second one
+            loopSeen = false;
+
+            for (i = g.begin(u); i < g.end(u); ++i) {
+
+                v = g.target(i);
+
+                if (u < v || (u == v && (loopSeen = !loopSeen))) {
+
+                    eu[e] = u;
+                    ev[e] = v;
+                    ew[e++] = g.weight(i);
+                }
+            }
+        }
+    }
+
+    // Sets where the algorithms report their steps, GraphTracer.NONE to run silently
+    public void setTracer(GraphTracer _tracer) {
+
+        tracer = _tracer;
+    }
+
+    // Number of vertices
+    public int vertices() {
+
+        return V;
+    }
+
+    // Number of edges
+    public int edges() {
+
+        return E;
+    }
+
     // Computes the Minimum Spanning Tree (MST) of this graph using Kruskal's algorithm
     public Edge[] MST_Kruskal() { 
 
         int i = 0;
-        Edge e;
+        int e;
         int uSet, vSet; // set1 and set2
         UnionFindSets partition;
         
@@ -310,44 +378,72 @@ class Graph {
         // Initially, it has no edges
         mst = new Edge[V - 1];
 
-        // Create a heap for sorting the indices of the array of edges
-        Heap h = new Heap(E, edge);
+        // Create a heap for sorting the edge numbers by weight
+        Heap h = new Heap(E, ew);
 
         // Create a partition of singleton sets for the vertices
-        System.out.println("\nSets Before Kruskal's:");
         partition = new UnionFindSets(V);
-        partition.showSets();
-        System.out.println();
+        tracer.message("\nSets Before Kruskal's:\n");
+        tracer.sets(partition.components());
+        tracer.message("\n");
 
-        while (i < V - 1) {
+        // A disconnected graph runs out of edges before V - 1 are accepted, leaving a spanning forest
+        while (i < V - 1 && h.N > 0) {
             // Removes the top edge from the heap
-            e = h.edge[h.remove()];
+            e = h.remove();
             
             // Find the sets that contain the vertices of the edge
-            uSet =  partition.findSet(e.u);
-            vSet = partition.findSet(e.v);
+            uSet =  partition.findSet(eu[e]);
+            vSet = partition.findSet(ev[e]);
 
             // If the vertices are in different sets, join them and add the edge to the MST
             if(uSet != vSet) {
 
                 partition.unionByRank(uSet, vSet);
-                System.out.print("Inserting Edge to MST: \n\n");
-                e.show();
-                mst[i++] = e;
-                partition.showSets();
-                System.out.println("\nTree of Vertices: \n");
-                partition.showTrees();
-                System.out.println();
+                mst[i++] = new Edge(eu[e], ev[e], ew[e]);
+                tracer.acceptEdge(eu[e], ev[e], ew[e]);
+                tracer.union(uSet, vSet, partition.parents());
             } 
         }
         
-        System.out.println("Sets After Kruskal's: ");
-        partition.showSets();
+        if (i < V - 1) {
+
+            mst = Arrays.copyOf(mst, i);
+        }
+
+        tracer.message("Sets After Kruskal's: \n");
+        tracer.sets(partition.components());
 
         // Return the array of edges that form the MST of this graph
         return mst;
     } 
 
+    // Kruskal's algorithm with the edges sorted in parallel on the pool, see ParallelKruskal
+    public Edge[] MST_KruskalParallel(ForkJoinPool pool) {
+
+        mst = parallelKruskal(pool).sortKruskal();
+        return mst;
+    }
+
+    // Filter-Kruskal on the pool, which drops heavy edges inside a tree instead of sorting them
+    public Edge[] MST_FilterKruskal(ForkJoinPool pool) {
+
+        mst = parallelKruskal(pool).filterKruskal();
+        return mst;
+    }
+
+    // Boruvka's algorithm on the pool, see Boruvka
+    public Edge[] MST_Boruvka(ForkJoinPool pool) {
+
+        mst = new Boruvka(V, E, eu, ev, ew, pool).mst();
+        return mst;
+    }
+
+    private ParallelKruskal parallelKruskal(ForkJoinPool pool) {
+
+        return new ParallelKruskal(V, E, eu, ev, ew, pool);
+    }
+
     // This method converts the integer representation of a vertex into its corresponding character representation
     private char toChar(int u) {
         
@@ -361,7 +457,7 @@ class Graph {
 
         System.out.print("\nMinimum Spanning Tree Built from the Following Edges:\n\n");
         
-        for(int e = 0; e < V - 1; ++e) {
+        for(int e = 0; e < mst.length; ++e) {
             // Show each edge in the minimum spanning tree
             mst[e].show(); 
             sum += mst[e].wgt;
@@ -387,19 +483,27 @@ class KruskalTrees {
         String fName = "";
 
         // Prompt user to enter filename until a valid filename is entered
-        while (!fName.endsWith(".txt")) {
+        while (!fName.endsWith(".txt") && !fName.endsWith(".bin")) {
 
             System.out.print("\nEnter the name of the graph file in .txt extension: \n");
             fName = sc.nextLine();
             
-            if (!fName.endsWith(".txt")) {
+            if (!fName.endsWith(".txt") && !fName.endsWith(".bin")) {
 
                 System.out.println("Invalid filename! Please enter a filename with .txt extension.");
             }
         }
 
-        // Create a Graph object using the specified file
-        Graph g = new Graph(fName);
+        // Create a Graph object using the specified file, mapping it if it is a binary graph file
+        Graph g;
+
+        if (fName.endsWith(".bin")) {
+
+            g = new Graph(BinaryGraphFile.open(fName));
+        } else {
+
+            g = new Graph(fName);
+        }
 
         // Compute the minimum spanning tree using Kruskal's algorithm
         g.MST_Kruskal();
@@ -0,0 +1,161 @@
+// Title: Benchmarks for the Algorithms in KruskalTrees
+
+/*
+    Times Kruskal's algorithm (sequential, with a parallel sort, and Filter-Kruskal), Boruvka's algorithm and the
+    UnionFindSets operations on synthetic random sparse, dense, grid and power-law graphs. See Bench for what each
+    column means.
+
+        java KruskalTreesBench [small|medium|large|graph.txt|graph.bin]
+
+    A graph file, for example one written by GraphGenerator, is benchmarked on its own in place of the synthetic
+    graphs, so the benchmarks can be run on the same inputs as other tests.
+
+    The same operations run under JMH, with forks, error bounds and the GC profiler, from the bench/kruskal Maven
+    module (see README.md). This driver is the quick check that needs nothing beyond the JDK.
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+// Driver code for the KruskalTrees benchmarks
+class KruskalTreesBench {
+
+    // Synthetic inputs, each one a name for the graph param of the JMH benchmarks
+    static final String[] GRAPHS = {"sparse", "dense", "grid", "powerlaw"};
+
+    public static void main(String[] args) {
+
+        String size = args.length > 0 ? args[0] : "small";
+        boolean file = size.endsWith(".txt") || size.endsWith(".bin");
+        int warmups = file || size.equals("large") ? 2 : size.equals("medium") ? 5 : 20;
+        int iterations = file || size.equals("large") ? 5 : size.equals("medium") ? 10 : 50;
+
+        Bench.header();
+        for (String graph : file ? new String[] {size} : GRAPHS) {
+
+            Graph g = input(graph, size);
+            String name = " " + graph + "(V=" + g.vertices() + ",E=" + g.edges() + ")";
+
+            for (Map.Entry<String, LongSupplier> op : ops(g).entrySet()) {
+
+                Bench.run(op.getKey() + name, warmups, iterations, op.getValue()::getAsLong);
+            }
+        }
+        if (!file) {
+
+            int n = vertices(size);
+
+            for (Map.Entry<String, LongSupplier> op : unionFindOps(n).entrySet()) {
+
+                Bench.run(op.getKey() + " (N=" + n + ")", warmups, iterations, op.getValue()::getAsLong);
+            }
+        }
+    }
+
+    // One operation on one input, for the JMH benchmarks in the bench module, which call it by reflection
+    // The union-find operations take no graph, only the size
+    static LongSupplier op(String op, String graph, String size) {
+
+        LongSupplier run = op.startsWith("UnionFindSets.") ? unionFindOps(vertices(size)).get(op)
+                : ops(input(graph, size)).get(op);
+
+        if (run == null) {
+
+            throw new IllegalArgumentException("No benchmark named " + op);
+        }
+        return run;
+    }
+
+    // Number of vertices of the sparse and power-law inputs, and of the union-find benchmarks
+    static int vertices(String size) {
+
+        return size.equals("large") ? 1000000 : size.equals("medium") ? 100000 : 1000;
+    }
+
+    // Builds a synthetic graph of the given size (small, medium or large), or loads a text or binary graph file
+    static Graph input(String graph, String size) {
+
+        boolean large = size.equals("large"), medium = size.equals("medium");
+        int n = vertices(size);
+        int grid = large ? 1000 : medium ? 316 : 32;
+        int dense = large ? 4000 : medium ? 2000 : 500;
+
+        switch (graph) {
+
+            case "sparse":
+                return new Graph(SyntheticGraphs.sparse(n, 8, 1), GraphTracer.NONE);
+            case "dense":
+                return new Graph(SyntheticGraphs.dense(dense, 2), GraphTracer.NONE);
+            case "grid":
+                return new Graph(SyntheticGraphs.grid(grid, grid, 3), GraphTracer.NONE);
+            case "powerlaw":
+                return new Graph(SyntheticGraphs.powerLaw(n, 4, 4), GraphTracer.NONE);
+            default:
+                try {
+                    return graph.endsWith(".bin") ? new Graph(BinaryGraphFile.open(graph))
+                            : new Graph(EdgeFileReader.load(graph), GraphTracer.NONE);
+                } catch (IOException e) {
+
+                    throw new UncheckedIOException(e);
+                }
+        }
+    }
+
+    // Kruskal's algorithm, sequential, with a parallel sort and Filter-Kruskal, and Boruvka's algorithm on one graph
+    static Map<String, LongSupplier> ops(Graph g) {
+
+        Map<String, LongSupplier> ops = new LinkedHashMap<>();
+
+        ops.put("Graph.MST_Kruskal", () -> g.MST_Kruskal().length);
+        ops.put("Graph.MST_KruskalParallel", () -> g.MST_KruskalParallel(ForkJoinPool.commonPool()).length);
+        ops.put("Graph.MST_FilterKruskal", () -> g.MST_FilterKruskal(ForkJoinPool.commonPool()).length);
+        ops.put("Graph.MST_Boruvka", () -> g.MST_Boruvka(ForkJoinPool.commonPool()).length);
+        return ops;
+    }
+
+    // Random unions followed by a find on every vertex, and grouping the sets
+    static Map<String, LongSupplier> unionFindOps(int n) {
+
+        final int[] a = new int[n];
+        final int[] b = new int[n];
+        SplittableRandom rnd = new SplittableRandom(5);
+        Map<String, LongSupplier> ops = new LinkedHashMap<>();
+
+        for (int i = 0; i < n; i++) {
+
+            a[i] = 1 + rnd.nextInt(n);
+            b[i] = 1 + rnd.nextInt(n);
+        }
+
+        ops.put("UnionFindSets.unionFind", () -> {
+
+            UnionFindSets sets = new UnionFindSets(n);
+            long sum = 0;
+
+            for (int i = 0; i < n / 2; i++) {
+
+                sets.unionByRank(a[i], b[i]);
+            }
+            for (int v = 1; v <= n; v++) {
+
+                sum += sets.findSet(v);
+            }
+            return sum + sets.count();
+        });
+
+        final UnionFindSets sets = new UnionFindSets(n);
+        for (int i = 0; i < n / 2; i++) {
+
+            sets.unionByRank(a[i], b[i]);
+        }
+
+        ops.put("UnionFindSets.components", () -> sets.components().count);
+        return ops;
+    }
+}
@@ -0,0 +1,322 @@
+// Title: Direction-Optimizing Parallel Breadth First Search
+
+/*
+    Full Program Description:
+
+    This is a level synchronous breadth first search over a CSRGraph that runs each level on a ForkJoinPool. The
+    current and next frontiers are bitsets (one bit per vertex packed into long words), and the vertices are split
+    between the threads a range of words at a time.
+
+    Each level is run in one of two directions, as described by Beamer, Asanovic and Patterson:
+
+        top-down   every vertex in the frontier looks at its neighbours and claims the ones not yet visited
+        bottom-up  every vertex not yet visited looks at its neighbours and stops at the first one in the frontier
+
+    Top-down is cheaper while the frontier is small. Once the edges leaving the frontier (mf) outnumber the edges
+    still left to check from unvisited vertices (mu) divided by ALPHA, bottom-up is cheaper because most unvisited
+    vertices find a parent after looking at only a few neighbours. The search switches back to top-down when the
+    frontier shrinks below V / BETA vertices.
+
+    The result is a BFSTree with the same levels as a sequential search. The parents may differ, since any vertex
+    one level closer to the source is a valid parent. The time taken by each level, the direction it was run in,
+    and the traversed edges per second (TEPS) are kept for report().
+
+    Run this class as a program to time a search on a graph file:
+
+        java ParallelBFS graph.txt|graph.bin source [threads]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// This class runs a parallel breadth first search that switches between top-down and bottom-up levels
+class ParallelBFS {
+
+    // Tuning constants from the direction-optimizing BFS paper
+    static final int ALPHA = 14;
+    static final int BETA = 24;
+
+    // Atomic access to single words of a long[] bitset
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final CSRGraph g;
+    private final ForkJoinPool pool;
+    private final int V, words, chunks;
+
+    // Statistics of the last search, one entry per level
+    private ArrayList<Long> levelNanos = new ArrayList<Long>();
+    private ArrayList<Integer> levelSize = new ArrayList<Integer>();
+    private ArrayList<Boolean> levelTopDown = new ArrayList<Boolean>();
+    private ArrayList<Long> levelChecked = new ArrayList<Long>();
+    private long totalNanos, traversedEdges;
+
+    // Constructor - takes the graph and the pool whose threads will run each level
+    public ParallelBFS(CSRGraph _g, ForkJoinPool _pool) {
+
+        g = _g;
+        pool = _pool;
+        V = g.vertices();
+        words = (V >> 6) + 1; // bits 0..V, bit 0 is never used
+        chunks = Math.max(1, Math.min(words, pool.getParallelism() * 8));
+    }
+
+    // Runs the search from s and returns the levels and parents of every reached vertex
+    public BFSTree search(int s) {
+
+        BFSTree tree = new BFSTree(V);
+        long[] visited = new long[words];
+        long[] frontier = new long[words];
+        long[] next = new long[words];
+        long[] swap;
+        long[] chunkEdges = new long[chunks]; // per chunk count of edges looked at
+        int[] chunkCount = new int[chunks]; // per chunk count of vertices added to the next frontier
+        long start, levelStart, mf, mu, checked;
+        int depth, nf;
+        boolean topDown;
+
+        levelNanos.clear();
+        levelSize.clear();
+        levelTopDown.clear();
+        levelChecked.clear();
+        start = System.nanoTime();
+
+        tree.source = s;
+        tree.level[s] = 0;
+        tree.order[0] = s;
+        tree.count = 1;
+        set(visited, s);
+        set(frontier, s);
+
+        nf = 1;
+        mf = g.degree(s);
+        mu = 2L * g.edges() - mf;
+        depth = 0;
+        topDown = true;
+
+        while (nf > 0) {
+
+            levelStart = System.nanoTime();
+
+            // Pick the direction for this level
+            if (topDown && mf > mu / ALPHA) {
+
+                topDown = false;
+            } else if (!topDown && nf < V / BETA) {
+
+                topDown = true;
+            }
+
+            if (topDown) {
+
+                topDownStep(frontier, next, visited, tree, depth, chunkEdges, chunkCount);
+            } else {
+
+                bottomUpStep(frontier, next, visited, tree, depth, chunkEdges, chunkCount);
+            }
+
+            // Add up what the chunks found and list the new frontier in tree.order
+            nf = 0;
+            checked = 0;
+            for (int c = 0; c < chunks; c++) {
+
+                nf += chunkCount[c];
+                checked += chunkEdges[c];
+            }
+
+            mf = 0;
+            int n = tree.count;
+            for (int w = 0; w < words; w++) {
+
+                for (long bits = next[w]; bits != 0; bits &= bits - 1) {
+
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    tree.order[n++] = v;
+                    mf += g.degree(v);
+                }
+            }
+            tree.count = n;
+            mu -= mf;
+
+            levelNanos.add(System.nanoTime() - levelStart);
+            levelSize.add(nf);
+            levelTopDown.add(topDown);
+            levelChecked.add(checked);
+
+            // The next frontier becomes the current one, and the old one is cleared for reuse
+            swap = frontier;
+            frontier = next;
+            next = swap;
+            Arrays.fill(next, 0);
+            depth++;
+        }
+
+        totalNanos = System.nanoTime() - start;
+
+        // TEPS counts each edge of the reached part of the graph once
+        traversedEdges = 0;
+        for (int i = 0; i < tree.count; i++) {
+
+            traversedEdges += g.degree(tree.order[i]);
+        }
+        traversedEdges /= 2;
+
+        return tree;
+    }
+
+    // Top-down level: vertices in the frontier claim their unvisited neighbours
+    private void topDownStep(long[] frontier, long[] next, long[] visited, BFSTree tree, int depth,
+                             long[] chunkEdges, int[] chunkCount) {
+
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(c -> {
+
+            long edges = 0;
+            int count = 0;
+
+            for (int w = firstWord(c); w < firstWord(c + 1); w++) {
+
+                for (long bits = frontier[w]; bits != 0; bits &= bits - 1) {
+
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+
+                    for (int i = g.begin(u), last = g.end(u); i < last; i++) {
+
+                        int v = g.target(i);
+                        edges++;
+
+                        // Only the thread that sets the visited bit writes v's level and parent
+                        if (!test(visited, v) && trySet(visited, v)) {
+
+                            tree.level[v] = depth + 1;
+                            tree.parent[v] = u;
+                            setAtomic(next, v);
+                            count++;
+                        }
+                    }
+                }
+            }
+            chunkEdges[c] = edges;
+            chunkCount[c] = count;
+        })).join();
+    }
+
+    // Bottom-up level: unvisited vertices look for any neighbour in the frontier
+    // Each chunk owns whole words of visited[] and next[], so no atomic updates are needed
+    private void bottomUpStep(long[] frontier, long[] next, long[] visited, BFSTree tree, int depth,
+                              long[] chunkEdges, int[] chunkCount) {
+
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(c -> {
+
+            long edges = 0;
+            int count = 0;
+
+            for (int w = firstWord(c); w < firstWord(c + 1); w++) {
+
+                for (long bits = ~visited[w]; bits != 0; bits &= bits - 1) {
+
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+
+                    if (v == 0 || v > V) {
+
+                        continue;
+                    }
+
+                    for (int i = g.begin(v), last = g.end(v); i < last; i++) {
+
+                        int u = g.target(i);
+                        edges++;
+
+                        if (test(frontier, u)) {
+
+                            tree.level[v] = depth + 1;
+                            tree.parent[v] = u;
+                            visited[w] |= 1L << v;
+                            next[w] |= 1L << v;
+                            count++;
+                            break;
+                        }
+                    }
+                }
+            }
+            chunkEdges[c] = edges;
+            chunkCount[c] = count;
+        })).join();
+    }
+
+    // First bitset word handled by chunk c
+    private int firstWord(int c) {
+
+        return (int) ((long) words * c / chunks);
+    }
+
+    private static boolean test(long[] bits, int v) {
+
+        return (bits[v >> 6] & (1L << v)) != 0;
+    }
+
+    private static void set(long[] bits, int v) {
+
+        bits[v >> 6] |= 1L << v;
+    }
+
+    private static void setAtomic(long[] bits, int v) {
+
+        WORDS.getAndBitwiseOr(bits, v >> 6, 1L << v);
+    }
+
+    // Sets bit v and returns true if this call was the one that set it
+    private static boolean trySet(long[] bits, int v) {
+
+        long mask = 1L << v;
+        return ((long) WORDS.getAndBitwiseOr(bits, v >> 6, mask) & mask) == 0;
+    }
+
+    // Traversed edges per second of the last search
+    public double teps() {
+
+        return traversedEdges / Math.max(totalNanos / 1e9, 1e-9);
+    }
+
+    // Per level timings and the overall TEPS of the last search
+    public String report() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int d = 0; d < levelNanos.size(); d++) {
+
+            sb.append(String.format("Level %3d  %-9s  %10d vertices  %12d edges checked  %10.3f ms%n", d + 1,
+                    levelTopDown.get(d) ? "top-down" : "bottom-up", levelSize.get(d), levelChecked.get(d),
+                    levelNanos.get(d) / 1e6));
+        }
+        sb.append(String.format("%d edges traversed in %.3f ms, %.1f MTEPS with %d threads%n",
+                traversedEdges, totalNanos / 1e6, teps() / 1e6, pool.getParallelism()));
+        return sb.toString();
+    }
+
+    // Times a search on the graph file named by the first argument
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+
+            System.out.println("Usage: java ParallelBFS <graph.txt|graph.bin> <source> [threads]");
+            return;
+        }
+
+        CSRGraph g = BinaryGraphFile.isBinary(args[0]) ? BinaryGraphFile.open(args[0]) : CSRGraph.load(args[0]);
+        int s = Integer.parseInt(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ParallelBFS bfs = new ParallelBFS(g, pool);
+
+        BFSTree tree = bfs.search(s);
+        System.out.println("Reached " + tree.count + " of " + g.vertices() + " vertices from " + s);
+        System.out.print(bfs.report());
+        pool.shutdown();
+    }
+}
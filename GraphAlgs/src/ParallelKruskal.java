@@ -0,0 +1,327 @@
+// Title: Parallel Kruskal's and Filter-Kruskal Minimum Spanning Tree
+
+/*
+    Full Program Description:
+
+    Kruskal's algorithm using several cores. The edges are held as primitive int arrays u[], v[], w[] (numbered
+    0..E-1), and each edge is packed into one long sort key, its weight in the high 32 bits and its number in the low
+    32 bits, so sorting the keys sorts the edges by weight, with ties broken by edge number, without any Edge objects.
+
+        sortKruskal    sorts all the keys with Arrays.parallelSort on the ForkJoinPool, then scans them once with a
+                       UnionFindSets, accepting every edge that joins two different sets
+
+        filterKruskal  the Filter-Kruskal algorithm of Osipov, Sanders and Singler: splits the keys around a pivot
+                       weight, solves the lighter part first, then drops every heavier edge whose ends are already in
+                       the same set before going on to the heavier part. On dense graphs most heavy edges are dropped
+                       this way without ever being sorted. Splitting and filtering are done in parallel in chunks,
+                       each chunk counting its edges first so it knows where to write them
+
+    Both return the MST edges in order of weight, like Graph.MST_Kruskal, as an Edge[] of V - 1 edges, or fewer for
+    a disconnected graph (a spanning forest).
+
+    Run this class as a program to time the variants against Graph.MST_Kruskal on a graph file:
+
+        java ParallelKruskal graph.txt|graph.bin [threads]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// This class computes minimum spanning trees with Kruskal's algorithm on several threads
+class ParallelKruskal {
+
+    // Ranges of keys at most this long are handled by the calling thread alone
+    static final int SEQUENTIAL = 1 << 13;
+
+    // Number of keys sampled to pick a pivot
+    static final int SAMPLE = 31;
+
+    private final int V, E;
+    private final int[] u, v, w;
+    private final ForkJoinPool pool;
+    private final int chunks;
+
+    // State of one run
+    private long[] keys, tmp;
+    private UnionFindSets sets;
+    private int[] parent;
+    private Edge[] mst;
+    private int count;
+    private SplittableRandom rnd;
+
+    // Constructor - takes the edges u[i]--v[i] of weight w[i] for i = 0..E-1, and the pool to run on
+    public ParallelKruskal(int _V, int _E, int[] _u, int[] _v, int[] _w, ForkJoinPool _pool) {
+
+        V = _V;
+        E = _E;
+        u = _u;
+        v = _v;
+        w = _w;
+        pool = _pool;
+        chunks = Math.max(1, pool.getParallelism() * 4);
+    }
+
+    // Kruskal's algorithm with a parallel sort of all the edges
+    public Edge[] sortKruskal() {
+
+        start();
+        pool.submit(() -> Arrays.parallelSort(keys)).join();
+        scan(0, E);
+        return finish();
+    }
+
+    // Filter-Kruskal, which skips sorting the heavy edges that cannot be in the MST
+    public Edge[] filterKruskal() {
+
+        start();
+        tmp = new long[E];
+        rnd = new SplittableRandom(E);
+        filterKruskal(0, E);
+        tmp = null;
+        return finish();
+    }
+
+    // Packs every edge into its sort key and resets the sets and result
+    private void start() {
+
+        keys = new long[E];
+        pool.submit(() -> IntStream.range(0, E).parallel().forEach(i -> keys[i] = ((long) w[i] << 32) | i)).join();
+
+        sets = new UnionFindSets(V);
+        parent = sets.parents();
+        mst = new Edge[Math.max(0, V - 1)];
+        count = 0;
+    }
+
+    private Edge[] finish() {
+
+        keys = null;
+        return count < mst.length ? Arrays.copyOf(mst, count) : mst;
+    }
+
+    // Filter-Kruskal on the keys in [lo, hi), all heavier than any key already scanned
+    private void filterKruskal(int lo, int hi) {
+
+        if (count == V - 1 || lo == hi) {
+
+            return;
+        }
+
+        // Small ranges are simply sorted and scanned
+        if (hi - lo <= Math.max(SEQUENTIAL, V)) {
+
+            sort(lo, hi);
+            scan(lo, hi);
+            return;
+        }
+
+        long pivot = pivot(lo, hi);
+        int mid = split(lo, hi, pivot, false);
+
+        if (mid == hi) {
+
+            sort(lo, hi);
+            scan(lo, hi);
+            return;
+        }
+
+        filterKruskal(lo, mid);
+
+        // Only heavy edges joining two different sets can still be in the MST
+        if (count < V - 1) {
+
+            filterKruskal(mid, split(mid, hi, 0, true));
+        }
+    }
+
+    // Median of a random sample of the keys in [lo, hi)
+    private long pivot(int lo, int hi) {
+
+        long[] sample = new long[SAMPLE];
+
+        for (int i = 0; i < SAMPLE; i++) {
+
+            sample[i] = keys[lo + rnd.nextInt(hi - lo)];
+        }
+        Arrays.sort(sample);
+        return sample[SAMPLE / 2];
+    }
+
+    private void sort(int lo, int hi) {
+
+        if (hi - lo <= SEQUENTIAL) {
+
+            Arrays.sort(keys, lo, hi);
+        } else {
+
+            pool.submit(() -> Arrays.parallelSort(keys, lo, hi)).join();
+        }
+    }
+
+    // Accepts, in key order, the edges of [lo, hi) that join two different sets
+    private void scan(int lo, int hi) {
+
+        for (int i = lo; i < hi && count < V - 1; i++) {
+
+            int e = (int) keys[i];
+            int a = sets.findSet(u[e]);
+            int b = sets.findSet(v[e]);
+
+            if (a != b) {
+
+                sets.unionByRank(a, b);
+                mst[count++] = new Edge(u[e], v[e], w[e]);
+            }
+        }
+    }
+
+    // Rearranges [lo, hi) and returns the end of the first part. When filtering, the first part holds the edges
+    // joining two different sets and the rest are dropped; otherwise it holds the keys <= pivot and the rest follow.
+    // Each chunk counts its two parts, so every chunk knows where in tmp to copy its keys without locking.
+    private int split(int lo, int hi, long pivot, boolean filter) {
+
+        int n = hi - lo;
+        int c = (int) Math.min(chunks, (n + (long) SEQUENTIAL - 1) / SEQUENTIAL);
+        int[] first = new int[c + 1];
+        int[] second = new int[c + 1];
+
+        if (c == 1) {
+
+            count(lo, hi, pivot, filter, first, second, 0);
+        } else {
+
+            pool.submit(() -> IntStream.range(0, c).parallel().forEach(k ->
+                    count(bound(lo, n, c, k), bound(lo, n, c, k + 1), pivot, filter, first, second, k))).join();
+        }
+
+        // Turn the counts into the positions each chunk starts writing at
+        int at = lo, a;
+        for (int k = 0; k < c; k++) {
+
+            a = first[k];
+            first[k] = at;
+            at += a;
+        }
+        int mid = at;
+        for (int k = 0; k < c; k++) {
+
+            a = second[k];
+            second[k] = at;
+            at += a;
+        }
+        int end = at;
+
+        if (c == 1) {
+
+            scatter(lo, hi, pivot, filter, first[0], second[0]);
+            System.arraycopy(tmp, lo, keys, lo, end - lo);
+        } else {
+
+            pool.submit(() -> IntStream.range(0, c).parallel().forEach(k -> scatter(bound(lo, n, c, k),
+                    bound(lo, n, c, k + 1), pivot, filter, first[k], second[k]))).join();
+            pool.submit(() -> IntStream.range(0, c).parallel().forEach(k -> {
+
+                int from = bound(lo, end - lo, c, k);
+                System.arraycopy(tmp, from, keys, from, bound(lo, end - lo, c, k + 1) - from);
+            })).join();
+        }
+
+        return mid;
+    }
+
+    // Start of chunk k when n keys from lo are split into c chunks
+    private static int bound(int lo, int n, int c, int k) {
+
+        return lo + (int) ((long) n * k / c);
+    }
+
+    // Counts the keys of [lo, hi) that go in the first and second parts
+    private void count(int lo, int hi, long pivot, boolean filter, int[] first, int[] second, int k) {
+
+        int f = 0, s = 0;
+
+        for (int i = lo; i < hi; i++) {
+
+            if (filter ? crosses((int) keys[i]) : keys[i] <= pivot) {
+
+                f++;
+            } else if (!filter) {
+
+                s++;
+            }
+        }
+        first[k] = f;
+        second[k] = s;
+    }
+
+    // Copies the keys of [lo, hi) into tmp, at f for the first part and at s for the second
+    private void scatter(int lo, int hi, long pivot, boolean filter, int f, int s) {
+
+        for (int i = lo; i < hi; i++) {
+
+            if (filter ? crosses((int) keys[i]) : keys[i] <= pivot) {
+
+                tmp[f++] = keys[i];
+            } else if (!filter) {
+
+                tmp[s++] = keys[i];
+            }
+        }
+    }
+
+    // Returns true if edge e joins two different sets. Only reads the parent array, so any number of threads may
+    // call it while no unions are being made.
+    private boolean crosses(int e) {
+
+        return root(u[e]) != root(v[e]);
+    }
+
+    private int root(int x) {
+
+        while (parent[x] != x) {
+
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // Times Graph.MST_Kruskal and both parallel variants on the graph file named by the first argument
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java ParallelKruskal <graph.txt|graph.bin> [threads]");
+            return;
+        }
+
+        Graph g = BinaryGraphFile.isBinary(args[0]) ? new Graph(BinaryGraphFile.open(args[0]))
+                : new Graph(EdgeFileReader.load(args[0]), GraphTracer.NONE);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        System.out.println("V = " + g.vertices() + ", E = " + g.edges() + ", " + threads + " threads");
+        time("Graph.MST_Kruskal", () -> g.MST_Kruskal());
+        time("ParallelKruskal.sortKruskal", () -> g.MST_KruskalParallel(pool));
+        time("ParallelKruskal.filterKruskal", () -> g.MST_FilterKruskal(pool));
+        pool.shutdown();
+    }
+
+    private static void time(String name, Supplier<Edge[]> algorithm) {
+
+        long start = System.nanoTime();
+        Edge[] mst = algorithm.get();
+        long nanos = System.nanoTime() - start;
+        long sum = 0;
+
+        for (Edge e : mst) {
+
+            sum += e.wgt;
+        }
+        System.out.printf("%-32s %8d edges  weight %12d  %10.1f ms%n", name, mst.length, sum, nanos / 1e6);
+    }
+}
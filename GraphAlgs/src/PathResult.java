@@ -0,0 +1,35 @@
+// Title: Result of a Point to Point Shortest Path Search
+
+/*
+    Holds the answer to one shortest path query from s to t.
+
+    distance is the length of the shortest path (Long.MAX_VALUE if t cannot be reached from s).
+    path[] lists the vertices on it from s to t (empty if t cannot be reached).
+    settled is the number of vertices the search took off its heaps, a measure of how much work it did that can be
+    compared with the V vertices a full Dijkstra search settles.
+*/
+
+// This class stores the length, vertices and search effort of one shortest path
+class PathResult {
+
+    public int source, target;
+    public long distance;
+    public int[] path;
+    public int settled;
+
+    // Constructor - takes the query, its answer and the number of vertices settled
+    public PathResult(int s, int t, long _distance, int[] _path, int _settled) {
+
+        source = s;
+        target = t;
+        distance = _distance;
+        path = _path;
+        settled = _settled;
+    }
+
+    // Returns true if t can be reached from s
+    public boolean found() {
+
+        return distance != Long.MAX_VALUE;
+    }
+}
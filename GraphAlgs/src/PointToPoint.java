@@ -0,0 +1,341 @@
+// Title: Point to Point Shortest Path Queries
+
+/*
+    Full Program Description:
+
+    Answers shortest path queries between two given vertices of a CSRGraph without computing the whole shortest path
+    tree. Two searches are offered:
+
+        bidirectional   Dijkstra's algorithm run forwards from s and backwards from t at the same time, always
+                        growing the side with fewer vertices waiting. Whenever an edge reaches a vertex the other side
+                        has reached, the path through it is a candidate, and the best one so far has length mu. The
+                        search stops as soon as the two smallest waiting distances add up to mu or more, since no path
+                        found later could be shorter. Each side only has to cover about half the distance, which on
+                        road-like graphs settles a fraction of the vertices a one-sided search would.
+
+        A*              Dijkstra's algorithm from s that orders the waiting vertices by dist(s, v) + h(v, t) for a
+                        Heuristic h, and stops as soon as t is settled. With a good estimate, such as the straight
+                        line distance on a graph with coordinates, it settles few vertices away from the direct route.
+
+    A PointToPoint object keeps its arrays between queries. Each query gets a new number, and an entry only counts if
+    it was written during the current query, so nothing needs to be cleared between queries. This makes repeated
+    queries on one graph cost only the vertices they settle. The object is not safe for use by several threads at
+    once, each thread needs its own.
+
+    Run this class as a program to compare the searches with a full Dijkstra search:
+
+        java PointToPoint graph.txt|graph.bin [queries] [seed]
+        java PointToPoint geometric V radius seed [queries]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// This class runs bidirectional Dijkstra and A* searches between pairs of vertices
+class PointToPoint {
+
+    private final CSRGraph g;
+    private final int V;
+
+    // Forward (from s) and backward (from t) distances and parents, valid where seenF[v] / seenB[v] == query
+    private final long[] distF, distB;
+    private final int[] parentF, parentB;
+    private final int[] seenF, seenB, doneF, doneB;
+    private final int[] hPosF, hPosB;
+    private final DistHeap heapF, heapB;
+    private int query;
+
+    // A* orders its heap by key[v] = distF[v] + h(v, t), made when first needed
+    private long[] key;
+    private DistHeap heapA;
+
+    // Constructor - allocates the search arrays for graph g
+    public PointToPoint(CSRGraph _g) {
+
+        g = _g;
+        V = g.vertices();
+        distF = new long[V + 1];
+        distB = new long[V + 1];
+        parentF = new int[V + 1];
+        parentB = new int[V + 1];
+        seenF = new int[V + 1];
+        seenB = new int[V + 1];
+        doneF = new int[V + 1];
+        doneB = new int[V + 1];
+        hPosF = new int[V + 1];
+        hPosB = new int[V + 1];
+        heapF = new DistHeap(V, distF, hPosF);
+        heapB = new DistHeap(V, distB, hPosB);
+    }
+
+    // Shortest path from s to t by bidirectional Dijkstra
+    public PathResult bidirectional(int s, int t) {
+
+        int u, v, i, last, meet, settled;
+        long d, mu;
+
+        start();
+
+        if (s == t) {
+
+            return new PathResult(s, t, 0, new int[] {s}, 0);
+        }
+
+        reach(distF, parentF, seenF, heapF, s, 0, 0);
+        reach(distB, parentB, seenB, heapB, t, 0, 0);
+        mu = Long.MAX_VALUE;
+        meet = 0;
+        settled = 0;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+
+            // No path found from here on can be shorter than mu
+            if (distF[heapF.peek()] + distB[heapB.peek()] >= mu) {
+
+                break;
+            }
+
+            boolean forward = heapF.size() <= heapB.size();
+            long[] dist = forward ? distF : distB;
+            long[] otherDist = forward ? distB : distF;
+            int[] parent = forward ? parentF : parentB;
+            int[] seen = forward ? seenF : seenB;
+            int[] otherSeen = forward ? seenB : seenF;
+            int[] done = forward ? doneF : doneB;
+            DistHeap heap = forward ? heapF : heapB;
+
+            u = heap.remove();
+            done[u] = query;
+            settled++;
+
+            for (i = g.begin(u), last = g.end(u); i < last; i++) {
+
+                v = g.target(i);
+                d = dist[u] + g.weight(i);
+
+                if (done[v] != query && (seen[v] != query || d < dist[v])) {
+
+                    reach(dist, parent, seen, heap, v, d, u);
+                }
+
+                // The path s .. u--v .. t, or t .. u--v .. s, through a vertex the other side has reached
+                if (otherSeen[v] == query && dist[v] + otherDist[v] < mu) {
+
+                    mu = dist[v] + otherDist[v];
+                    meet = v;
+                }
+            }
+        }
+
+        if (meet == 0) {
+
+            return new PathResult(s, t, Long.MAX_VALUE, new int[0], settled);
+        }
+        return new PathResult(s, t, mu, join(s, t, meet), settled);
+    }
+
+    // Shortest path from s to t by A* with the given heuristic, which must be consistent
+    public PathResult aStar(int s, int t, Heuristic h) {
+
+        int u, v, i, last, settled;
+        long d;
+
+        if (heapA == null) {
+
+            key = new long[V + 1];
+            heapA = new DistHeap(V, key, hPosF);
+        }
+
+        start();
+
+        key[s] = h.estimate(s, t);
+        reach(distF, parentF, seenF, null, s, 0, 0);
+        heapA.insert(s);
+        settled = 0;
+
+        while (!heapA.isEmpty()) {
+
+            u = heapA.remove();
+            doneF[u] = query;
+            settled++;
+
+            if (u == t) {
+
+                return new PathResult(s, t, distF[t], join(s, t, t), settled);
+            }
+
+            for (i = g.begin(u), last = g.end(u); i < last; i++) {
+
+                v = g.target(i);
+                d = distF[u] + g.weight(i);
+
+                if (doneF[v] != query && (seenF[v] != query || d < distF[v])) {
+
+                    boolean waiting = seenF[v] == query;
+
+                    key[v] = d + h.estimate(v, t);
+                    reach(distF, parentF, seenF, null, v, d, u);
+
+                    if (waiting) {
+
+                        heapA.decreaseKey(v);
+                    } else {
+
+                        heapA.insert(v);
+                    }
+                }
+            }
+        }
+
+        return new PathResult(s, t, Long.MAX_VALUE, new int[0], settled);
+    }
+
+    // Starts a new query, emptying the heaps left over from the last one
+    private void start() {
+
+        heapF.clear();
+        heapB.clear();
+        if (heapA != null) {
+
+            heapA.clear();
+        }
+
+        // Clear the marks only when the query number would overflow
+        if (query == Integer.MAX_VALUE) {
+
+            Arrays.fill(seenF, 0);
+            Arrays.fill(seenB, 0);
+            Arrays.fill(doneF, 0);
+            Arrays.fill(doneB, 0);
+            query = 0;
+        }
+        query++;
+    }
+
+    // Sets the distance of v to d through parent p, adding v to the heap or moving it up
+    private void reach(long[] dist, int[] parent, int[] seen, DistHeap heap, int v, long d, int p) {
+
+        boolean waiting = seen[v] == query;
+
+        dist[v] = d;
+        parent[v] = p;
+        seen[v] = query;
+
+        if (heap == null) {
+
+            return;
+        }
+        if (waiting) {
+
+            heap.decreaseKey(v);
+        } else {
+
+            heap.insert(v);
+        }
+    }
+
+    // The path s .. meet by forward parents followed by meet .. t by backward parents
+    private int[] join(int s, int t, int meet) {
+
+        int nF = 0, nB = 0, i, v;
+
+        for (v = meet; v != s; v = parentF[v]) {
+
+            nF++;
+        }
+        for (v = meet; v != t; v = parentB[v]) {
+
+            nB++;
+        }
+
+        int[] path = new int[nF + nB + 1];
+
+        v = meet;
+        for (i = nF; i >= 0; i--) {
+
+            path[i] = v;
+            v = parentF[v];
+        }
+        v = meet;
+        for (i = nF + 1; i < path.length; i++) {
+
+            v = parentB[v];
+            path[i] = v;
+        }
+        return path;
+    }
+
+    // Times random queries with a full Dijkstra search, bidirectional Dijkstra and, on geometric graphs, A*
+    public static void main(String[] args) throws IOException {
+
+        CSRGraph g;
+        Heuristic h = null;
+        int queries;
+        long seed;
+
+        if (args.length >= 4 && args[0].equals("geometric")) {
+
+            GraphGenerator.Geometric gen = GraphGenerator.geometric(Integer.parseInt(args[1]),
+                    Double.parseDouble(args[2]), Long.parseLong(args[3]));
+            EdgeList edges = gen.toEdgeList();
+
+            g = CSRGraph.fromEdges(edges.V, edges.E, edges.u, edges.v, edges.w);
+            h = Heuristic.euclidean(gen.x, gen.y, GraphGenerator.COORD_SCALE);
+            queries = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+            seed = Long.parseLong(args[3]);
+        } else if (args.length >= 1) {
+
+            g = BinaryGraphFile.isBinary(args[0]) ? BinaryGraphFile.open(args[0]) : CSRGraph.load(args[0]);
+            queries = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+            seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        } else {
+
+            System.out.println("Usage: java PointToPoint <graph.txt|graph.bin> [queries] [seed]");
+            System.out.println("       java PointToPoint geometric V radius seed [queries]");
+            return;
+        }
+
+        PointToPoint p2p = new PointToPoint(g);
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int V = g.vertices();
+        long fullNanos = 0, biNanos = 0, aNanos = 0, biSettled = 0, aSettled = 0, t0;
+        int wrong = 0;
+
+        for (int q = 0; q < queries; q++) {
+
+            int s = 1 + rnd.nextInt(V), t = 1 + rnd.nextInt(V);
+
+            t0 = System.nanoTime();
+            long full = g.SPT_Dijkstra(s).dist[t];
+            fullNanos += System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            PathResult bi = p2p.bidirectional(s, t);
+            biNanos += System.nanoTime() - t0;
+            biSettled += bi.settled;
+            wrong += bi.distance == full ? 0 : 1;
+
+            if (h != null) {
+
+                t0 = System.nanoTime();
+                PathResult a = p2p.aStar(s, t, h);
+                aNanos += System.nanoTime() - t0;
+                aSettled += a.settled;
+                wrong += a.distance == full ? 0 : 1;
+            }
+        }
+
+        System.out.printf("V = %d, E = %d, %d random queries%n", V, g.edges(), queries);
+        System.out.printf("Full Dijkstra          %10.3f ms/query  %10d settled/query%n", fullNanos / 1e6 / queries, V);
+        System.out.printf("Bidirectional Dijkstra %10.3f ms/query  %10d settled/query%n", biNanos / 1e6 / queries,
+                biSettled / queries);
+        if (h != null) {
+
+            System.out.printf("A*                     %10.3f ms/query  %10d settled/query%n", aNanos / 1e6 / queries,
+                    aSettled / queries);
+        }
+        System.out.println(wrong == 0 ? "All distances match Dijkstra" : wrong + " distances differ from Dijkstra");
+    }
+}
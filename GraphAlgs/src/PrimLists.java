@@ -7,7 +7,7 @@
 
     This is a Java program that implements a graph using adjacency lists to represent edges. The graph can read data from a text file and display the adjacency list. The program also includes methods to perform a depth-first traversal of the graph and to find the minimum spanning tree of the graph using Prim's algorithm.
 
-    The GraphLists class contains an inner class Node which represents a node in the adjacency list. It has private variables V and E to store the number of vertices and edges respectively. It also has private variables adj to store the adjacency list, z to represent a sentinel node, mst to store the minimum spanning tree, visited to mark visited nodes during traversal, and id to store the id of visited nodes.
+    The GraphLists class contains an inner class Node which represents a node in the adjacency list. It has private variables V and E to store the number of vertices and edges respectively. It also has private variables adj to store the adjacency list, z to represent a sentinel node, mst to store the minimum spanning tree, and cursor to hold the position reached in each adjacency list during a depth first traversal.
 
     The constructor of GraphLists takes a file name as input and reads data from the file to initialize the adjacency list. The display method displays the adjacency list. The DF method performs a depth-first traversal of the graph starting from a given vertex. The MST_Prim method finds the minimum spanning tree of the graph using Prim's algorithm.
 
@@ -41,75 +41,280 @@ class GraphLists {
     private Node z;
     private int[] mst;
 
-    // Variables used for graph traversal
-    private int[] visited;
-    private int id;
+    // cursor[v] is the next adjacency list node to look at from v during a depth first traversal
+    private Node[] cursor;
+
+    // Receives the steps of the algorithms, GraphTracer.NONE for no output
+    private GraphTracer tracer;
+
+    // Number of changes made to the edges since the graph was built, so that results can tell they are stale
+    private int modCount;
+
+    // Modes for MST_Prim(int)
+    public static final int PRIM_AUTO = 0;
+    public static final int PRIM_DENSE = 1;
+    public static final int PRIM_HEAP = 2;
     
-    // Default constructor for the GraphLists class
+    // Default constructor for the GraphLists class, reads the graph file and prints every step to the console
     public GraphLists(String graphFile) throws IOException {
+
+        this(graphFile, new ConsoleTracer());
+    }
+
+    // Reads the graph file with the fast EdgeFileReader, reporting each step to the given tracer
+    public GraphLists(String graphFile, GraphTracer tracer) throws IOException {
+
+        this(EdgeFileReader.load(graphFile), tracer);
+    }
+
+    // Builds the adjacency lists from an edge list that has already been read
+    public GraphLists(EdgeList edges, GraphTracer _tracer) {
         // Declare variables to hold graph information
         int u, v;
         int e, wgt;
         Node t;
 
-        // Open and read from the graph file
-        FileReader fr = new FileReader(graphFile);
+        tracer = _tracer;
+        tracer.message("\nParts[] = " + edges.V + " " + edges.E + "\n");
 
-        try(BufferedReader reader = new BufferedReader(fr)) {
-            
-            String splits = " +"; // Use multiple whitespace as delimiter
-            String line = reader.readLine();
-            String[] parts = line.split(splits);
-            System.out.println("\nParts[] = " + parts[0] + " " + parts[1]);
-            
-            // Read in the number of vertices and edges from the file
-            V = Integer.parseInt(parts[0]);
-            E = Integer.parseInt(parts[1]);
-            
-            // Create a sentinel node
-            z = new Node();
-            z.next = z;
-            
-            // Create adjacency lists and initialise to the sentinel node z
-            visited = new int[V + 1];
-            adj = new Node[V + 1];
-            mst = new int[V + 1];
+        // Read in the number of vertices and edges
+        V = edges.V;
+        E = edges.E;
+        
+        // Create a sentinel node
+        z = new Node();
+        z.next = z;
         
-            for (v = 1; v <= V; ++v) {
+        // Create adjacency lists and initialise to the sentinel node z
+        cursor = new Node[V + 1];
+        adj = new Node[V + 1];
+        mst = new int[V + 1];
+    
+        for (v = 1; v <= V; ++v) {
 
-                adj[v] = z;
-            }
+            adj[v] = z;
+        }
 
-            // Read in the edges from the text file
-            System.out.println("\nReading Edges from Text File:\n");
+        tracer.message("\nReading Edges from Text File:\n\n");
 
-            for (e = 1; e <= E; ++e) {
+        for (e = 0; e < E; ++e) {
 
-                line = reader.readLine();
-                parts = line.split(splits);
-                u = Integer.parseInt(parts[0]);
-                v = Integer.parseInt(parts[1]);
-                wgt = Integer.parseInt(parts[2]);
-                
-                // Print out the edge information
-                System.out.println("Edge " + toChar(u) + "--(" + wgt + ")--" + toChar(v));
+            u = edges.u[e];
+            v = edges.v[e];
+            wgt = edges.w[e];
+            
+            // Report the edge information
+            tracer.readEdge(u, v, wgt);
+
+            // Add the edge to the adjacency list for both vertices
+            t = new Node();
+            t.vert = v;
+            t.wgt = wgt;
+            t.next = adj[u];
+            adj[u] = t;
+
+            t = new Node();
+            t.vert = u;
+            t.wgt = wgt;
+            t.next = adj[v];
+            adj[v] = t;
+        }
 
-                // Add the edge to the adjacency list for both vertices
-                t = new Node();
-                t.vert = v;
-                t.wgt = wgt;
-                t.next = adj[u];
-                adj[u] = t;
+        tracer.message("\n" + edges.throughput() + "\n");
+    }
+
+    // Builds the adjacency lists from a CSRGraph, for example one opened with BinaryGraphFile.open()
+    // Every edge is copied into Node objects on the heap, so this does not keep the memory savings of a mapped file,
+    // algorithms that should run on the mapping itself are on CSRGraph
+    public GraphLists(CSRGraph g) {
+
+        int v, i;
+        Node t;
+
+        tracer = GraphTracer.NONE;
+
+        V = g.vertices();
+        E = g.edges();
+
+        z = new Node();
+        z.next = z;
+
+        cursor = new Node[V + 1];
+        adj = new Node[V + 1];
+        mst = new int[V + 1];
+
+        for (v = 1; v <= V; ++v) {
+
+            adj[v] = z;
+
+            // Add the entries back to front so each list keeps the CSR order
+            for (i = g.end(v) - 1; i >= g.begin(v); --i) {
 
                 t = new Node();
-                t.vert = u;
-                t.wgt = wgt;
+                t.vert = g.target(i);
+                t.wgt = g.weight(i);
                 t.next = adj[v];
                 adj[v] = t;
             }
         }
     }
 
+    // Sets where the algorithms report their steps, GraphTracer.NONE to run silently
+    public void setTracer(GraphTracer _tracer) {
+
+        tracer = _tracer;
+    }
+
+    // Number of vertices
+    public int vertices() {
+
+        return V;
+    }
+
+    // Number of edges
+    public int edges() {
+
+        return E;
+    }
+
+    // Number of changes made by addEdge, removeEdge and updateWeight so far
+    public int modCount() {
+
+        return modCount;
+    }
+
+    // Adds the edge u--v with the given weight to both adjacency lists
+    public void addEdge(int u, int v, int wgt) {
+
+        Node t;
+
+        checkVertex(u);
+        checkVertex(v);
+
+        t = new Node();
+        t.vert = v;
+        t.wgt = wgt;
+        t.next = adj[u];
+        adj[u] = t;
+
+        t = new Node();
+        t.vert = u;
+        t.wgt = wgt;
+        t.next = adj[v];
+        adj[v] = t;
+
+        E++;
+        modCount++;
+    }
+
+    // Removes the edge u--v, the lightest one if there are several, and returns false if there is none
+    public boolean removeEdge(int u, int v) {
+
+        Node n = lightest(u, v);
+
+        if (n == null) {
+
+            return false;
+        }
+
+        unlink(v, twin(u, v, n));
+        unlink(u, n);
+        E--;
+        modCount++;
+        return true;
+    }
+
+    // Changes the weight of the edge u--v, the lightest one if there are several, and returns false if there is none
+    public boolean updateWeight(int u, int v, int wgt) {
+
+        Node n = lightest(u, v);
+
+        if (n == null) {
+
+            return false;
+        }
+
+        twin(u, v, n).wgt = wgt;
+        n.wgt = wgt;
+        modCount++;
+        return true;
+    }
+
+    // Weight of the lightest edge u--v, or Integer.MAX_VALUE if u and v are not adjacent
+    public int weight(int u, int v) {
+
+        Node n = lightest(u, v);
+        return n == null ? Integer.MAX_VALUE : n.wgt;
+    }
+
+    // First node of v's adjacency list, for classes that walk the lists themselves
+    Node adjacent(int v) {
+
+        return adj[v];
+    }
+
+    // Returns true for the sentinel node that ends every adjacency list
+    boolean isEnd(Node n) {
+
+        return n == z;
+    }
+
+    // Node of the lightest edge u--v in u's list, or null
+    private Node lightest(int u, int v) {
+
+        Node best = null;
+
+        checkVertex(u);
+        checkVertex(v);
+
+        for (Node n = adj[u]; n != z; n = n.next) {
+
+            if (n.vert == v && (best == null || n.wgt < best.wgt)) {
+
+                best = n;
+            }
+        }
+        return best;
+    }
+
+    // The node in v's list for the same edge as node n in u's list (a self loop has both nodes in one list)
+    private Node twin(int u, int v, Node n) {
+
+        for (Node t = adj[v]; t != z; t = t.next) {
+
+            if (t != n && t.vert == u && t.wgt == n.wgt) {
+
+                return t;
+            }
+        }
+        throw new IllegalStateException("Edge " + u + "--" + v + " is missing from the list of " + v);
+    }
+
+    // Removes node n from v's list
+    private void unlink(int v, Node n) {
+
+        if (adj[v] == n) {
+
+            adj[v] = n.next;
+            return;
+        }
+
+        Node t = adj[v];
+        while (t.next != n) {
+
+            t = t.next;
+        }
+        t.next = n.next;
+    }
+
+    private void checkVertex(int v) {
+
+        if (v < 1 || v > V) {
+
+            throw new IllegalArgumentException("No vertex " + v + " in a graph of " + V + " vertices");
+        }
+    }
+
     // Convert vertex number into character for pretty printing
     private char toChar(int u) {
 
@@ -135,51 +340,116 @@ class GraphLists {
         System.out.println("");
     }
 
+    // Copies the adjacency lists into an immutable CSRGraph, keeping the order of each list
+    // Point to point queries are made on the copy: take it once and keep a PointToPoint on it
+    public CSRGraph toCSR() {
+
+        int v, i;
+        Node t;
+        int[] offsets = new int[V + 2];
+        int[] targets = new int[2 * E];
+        int[] weights = new int[2 * E];
+
+        i = 0;
+        for (v = 1; v <= V; ++v) {
+
+            offsets[v] = i;
+
+            for (t = adj[v]; t != z; t = t.next) {
+
+                targets[i] = t.vert;
+                weights[i++] = t.wgt;
+            }
+        }
+        offsets[V + 1] = i;
+
+        return new CSRGraph(V, E, offsets, targets, weights);
+    }
+
+    // Builds a contraction hierarchy index of the graph as it is now, for fast point to point queries
+    public ContractionHierarchy contract() {
+
+        return ContractionHierarchy.build(toCSR());
+    }
+
     // This method initialises a Depth First Traversal of the graph starting at the vertex s
     public void DF(int s) {
-        // Set the global variable 'id' to 0, indicating that no vertices have been visited yet
-        id = 0;
-        
-        // Loop through all vertices in the graph and set their visited status to 0 (not visited)
-        for (int v = 1; v <= V; v++) { 
 
-            visited[v] = 0;
-        }
+        // Report that a Depth First Traversal is starting, and which vertex it is starting from
+        tracer.message("\nDepth First Graph Traversal:\n");
+        tracer.message("Starting with Vertex " + toChar(s) + "\n");
 
-        // Print out a message indicating that a Depth First Traversal is starting, and which vertex it is starting from
-        System.out.print("\nDepth First Graph Traversal:\n");
-        System.out.println("Starting with Vertex " + toChar(s));
+        // Visit vertices using Depth First Traversal starting from vertex s
+        depthFirst(s);
 
-        // Call the 'dfVisit' method to start visiting vertices using Depth First Traversal starting from vertex s
-        dfVisit(0, s);
+        tracer.message("\n\n");
+    }
 
-        System.out.print("\n\n");
+    // Depth First Traversal from s, returning the discovery order, discovery and finish times and parents
+    public DFSTree depthFirst(int s) {
+
+        return depthFirst(s, new DFSTree(V));
     }
 
-    // Recursive Depth First Traversal
-    // This method is used to perform a depth-first traversal of a graph in a recursive manner
-    private void dfVisit(int prev, int v) {
+    // Iterative Depth First Traversal into a DFSTree left over from an earlier search, so nothing is allocated
+    // Instead of recursing, the search keeps an explicit stack of vertices, and cursor[v]
+    // remembers how far along v's adjacency list the search has got, so a path of any length is safe
+    public DFSTree depthFirst(int s, DFSTree tree) {
 
+        int v, u, top, n, time;
         Node t;
-        int u;
+        int[] stack = tree.stack;
+
+        tree.reset();
+        tree.source = s;
+
+        n = 0;
+        top = 0;
+        time = 0;
+
+        // Mark the start vertex as visited and push it
+        tree.order[n++] = s;
+        tree.discovery[s] = ++time;
+        cursor[s] = adj[s];
+        stack[top++] = s;
+        tracer.dfVisit(0, s);
+
+        while (top > 0) {
+
+            v = stack[top - 1];
+            t = cursor[v];
 
-        // Mark the current vertex as visited and assign it an ID.
-        visited[v] = ++id;
+            // Move along v's list to the next unvisited neighbour
+            while (t != z && tree.discovery[t.vert] != 0) {
 
-        // Print a message indicating that the vertex has just been visited along a particular edge
-        System.out.print("\nDF just visited vertex " + toChar(v) + " along " + toChar(prev) + "--" + toChar(v));
+                t = t.next;
+            }
+
+            if (t != z) {
 
-        // Iterate over each adjacent vertex of the current vertex and perform depth-first traversal on them
-        for (t = adj[v]; t != z; t = t.next) {
+                // Go deeper along the edge v--u, remembering where to carry on in v's list
+                u = t.vert;
+                cursor[v] = t.next;
 
-            u = t.vert;
+                tree.order[n++] = u;
+                tree.discovery[u] = ++time;
+                tree.parent[u] = v;
+                cursor[u] = adj[u];
+                stack[top++] = u;
 
-            if (visited[u] == 0) {
+                // Report that the vertex has just been visited along a particular edge
+                tracer.dfVisit(v, u);
+            } else {
 
-                dfVisit(v, u);
+                // All neighbours of v are done, go back to the vertex we came from
+                tree.finish[v] = ++time;
+                top--;
             }
         }
-    } 
+
+        tree.count = n;
+        return tree;
+    }
 
     // Heap implementation of Prim's algorithm
     // This method finds the vertex with the minimum weight among the unvisited vertices
@@ -201,7 +471,53 @@ class GraphLists {
     }
 
     // This method uses Prim's algorithm to find the minimum spanning tree of the graph
+    // The O(V^2) or heap version is picked automatically from the density of the graph
     public void MST_Prim() {
+
+        PrimResult r = MST_Prim(PRIM_AUTO);
+
+        System.out.println("\n\nAdding to MST: Edge\n");
+
+        // Print the edges of the minimum spanning tree
+        for (int i = 1; i <= V; i++) {
+
+            System.out.println(toChar(r.parent[i]) + " <-- (" + r.wgt[i] + ") --> " + toChar(i));
+        }
+
+        // Print the total weight of the minimum spanning tree and the tree itself
+        System.out.println("\nMST Weight = " + r.weight);
+        showMST(r.parent);
+    }
+
+    // This method runs Prim's algorithm in the given mode and returns the tree instead of printing it
+    //    PRIM_DENSE - linear scan for the minimum vertex, O(V^2), best for dense graphs
+    //    PRIM_HEAP  - indexed binary heap with decrease-key, O(E log V), best for sparse graphs
+    //    PRIM_AUTO  - picks whichever of the two is cheaper for this graph's E/V ratio
+    public PrimResult MST_Prim(int mode) {
+
+        PrimResult r;
+
+        if (mode == PRIM_AUTO) {
+            // The heap version wins while E log V stays below V^2
+            double logV = Math.log(V + 1) / Math.log(2);
+            mode = ((double) E * logV < (double) V * V) ? PRIM_HEAP : PRIM_DENSE;
+        }
+
+        if (mode == PRIM_HEAP) {
+
+            r = primHeap();
+        } else {
+
+            r = primDense();
+        }
+
+        // Keep a copy of the parent array for printing
+        System.arraycopy(r.parent, 0, mst, 0, V + 1);
+        return r;
+    }
+
+    // Dense version of Prim's algorithm which uses findMinVertex on every iteration
+    private PrimResult primDense() {
         // Declare and initialize variables for distances, parents, and visited vertices
         int v, u, w;
         int[] dist, parent;
@@ -218,8 +534,6 @@ class GraphLists {
             dist[v] = Integer.MAX_VALUE;
             parent[v] = 0; 
             hPos[v] = false;
-            visited[v] = 0;
-            mst[v] = 0;
         }
 
         // Set the distance to the first vertex to 0 and its parent to 0 (no parent)
@@ -232,6 +546,11 @@ class GraphLists {
             u = findMinVertex(dist, hPos);
             hPos[u] = true;
 
+            if (parent[u] != 0) {
+
+                tracer.primEdge(parent[u], u, dist[u]);
+            }
+
             // Update the distances and parents of adjacent vertices
             Node t = adj[u];
 
@@ -247,28 +566,83 @@ class GraphLists {
             }
         }
 
-        // Calculate and print the total weight of the minimum spanning tree
-        int mst_weight = 0;
+        return new PrimResult(parent, dist);
+    }
 
-        for (int i = 1; i <= V; i++) {
+    // Heap version of Prim's algorithm
+    // Vertices wait in the Heap ordered by dist[], and hPos[] lets us find a vertex
+    // inside the heap so that its key can be decreased when a lighter edge is found
+    private PrimResult primHeap() {
 
-            if (dist[i] != Integer.MAX_VALUE) {
+        int v, u, w, root;
+        int[] dist, parent, hPos;
+        boolean[] inTree;
+        Heap h;
 
-                mst_weight += dist[i];
-            }
+        dist = new int[V + 1]; // weight of the lightest edge joining v to the tree
+        parent = new int[V + 1]; // array to hold parent of vertex
+        hPos = new int[V + 1]; // position of v in the heap, 0 if not in the heap
+        inTree = new boolean[V + 1]; // true once v has been added to the tree
+
+        for (v = 0; v <= V; v++) {
+
+            dist[v] = Integer.MAX_VALUE;
+            parent[v] = 0;
+            hPos[v] = 0;
         }
 
-        System.out.println("\n\nAdding to MST: Edge\n");
+        h = new Heap(V, dist, hPos);
 
-        // Print the edges of the minimum spanning tree
-        for (int i = 1; i <= V; i++) {
+        // Grow a tree from vertex 1, then from any vertex it could not reach,
+        // so a disconnected graph gives a spanning forest just like the dense version
+        for (root = 1; root <= V; root++) {
+
+            if (inTree[root]) {
+
+                continue;
+            }
+
+            if (root == 1) {
+
+                dist[root] = 0;
+            }
+            h.insert(root);
+
+            while (!h.isEmpty()) {
+
+                u = h.remove();
+                inTree[u] = true;
+
+                if (parent[u] != 0) {
+
+                    tracer.primEdge(parent[u], u, dist[u]);
+                }
+
+                for (Node t = adj[u]; t != z; t = t.next) {
+                    v = t.vert;
+                    w = t.wgt;
 
-            System.out.println(toChar(parent[i]) + " <-- (" + dist[i] + ") --> " + toChar(i));
+                    if (!inTree[v] && w < dist[v]) {
+                        parent[v] = u;
+                        dist[v] = w;
+
+                        // Insert v the first time it is seen, otherwise move it up the heap
+                        if (hPos[v] == 0) {
+
+                            h.insert(v);
+                        } else {
+
+                            h.decreaseKey(v);
+                        }
+                    }
+                }
+            }
         }
 
-        // Print the total weight of the minimum spanning tree and the tree itself
-        System.out.println("\nMST Weight = " + mst_weight);
-        showMST(parent);
+        // siftUp uses dist[0] as a sentinel, so put it back
+        dist[0] = Integer.MAX_VALUE;
+
+        return new PrimResult(parent, dist);
     }
 
     // This method prints the Minimum Spanning Tree (MST) parent array
@@ -287,79 +661,64 @@ class GraphLists {
     // Breadth-first search (BFS) shortest path spanning tree on an unweighted graph
     public void BF(int s) {
 
-        Queue q = new Queue();
-        id = 0;
-        int u, v;
+        tracer.message("Breadth First Search:\n");
+        breadthFirst(s);
+    }
 
-        System.out.print("Breadth First Search:\n");
-        // Mark all nodes as unvisited
-        for(int i = 1; i <= V; i++) { 
+    // Breadth-first search from s, returning the visit order, levels and parents
+    public BFSTree breadthFirst(int s) {
 
-            visited[i] = 0; 
-        }
+        return breadthFirst(s, new BFSTree(V));
+    }
+
+    // Breadth-first search from s into a BFSTree left over from an earlier search, so nothing is allocated
+    // Vertices are marked when they are added to the queue, so each one is queued exactly once
+    // and tree.order[] itself can be used as the queue
+    public BFSTree breadthFirst(int s, BFSTree tree) {
+
+        int u, v, head, tail;
+        int[] order = tree.order;
+        int[] level = tree.level;
+        int[] parent = tree.parent;
+
+        tree.reset();
+        tree.source = s;
 
         // Enqueue the root node
-        q.enQueue(s); 
+        head = 0;
+        tail = 0;
+        level[s] = 0;
+        order[tail++] = s;
 
-        while(!q.isEmpty()) { // repeat V-1 times (while queue isn't empty)
+        while (head < tail) {
             // Dequeue the front node from the queue
-            v = q.deQueue(); 
-
-            if(visited[v] == 0) { // if node has not been visited yet
-                // Mark the node as visited and assign an ID to it
-                visited[v] = id++;
-                
-                // For all neighbors of the current node
-                for(Node t = adj[v]; t != z ; t = t.next) { 
-                    // Get the ID of the neighbor
-                    u = t.vert;
-
-                    if(visited[u] == 0) { // if neighbor has not been visited yet
-                        // Enqueue the neighbor and mark it as visited
-                        q.enQueue(u);  
-                    }
-                }
-                // Print the visited node
-                System.out.print("\nBFS visited vertex " + toChar(v) );
-            }
-        } 
-    } 
-    
-    // This code implements Dijkstra's algorithm to find the shortest path tree (SPT) in a weighted graph from a source vertex to all other vertices
-    public void SPT_Dijkstra(int s) {
-        // initialize arrays
-        int[] dist = new int[V + 1];
-        int[] parent = new int[V + 1];
-        boolean[] visited = new boolean[V + 1];
-        
-        // Set initial values for arrays
-        for (int i = 1; i <= V; i++) {
+            v = order[head++];
 
-            dist[i] = Integer.MAX_VALUE;
-            visited[i] = false;
-        }
+            // Report the visited node
+            tracer.bfVisit(parent[v], v);
 
-        dist[s] = 0;
-        parent[s] = -1;
-        
-        // Find shortest paths
-        for (int i = 1; i < V; i++) {
+            // For all neighbors of the current node
+            for (Node t = adj[v]; t != z; t = t.next) {
 
-            int u = findMinVertex(dist, visited);
-            visited[u] = true;
-            Node t = adj[u];
-            
-            while (t != z) {
-                int v = t.vert;
-                int w = t.wgt;
-                
-                if (!visited[v] && dist[u] != Integer.MAX_VALUE && dist[u] + w < dist[v]) {
-                    dist[v] = dist[u] + w;
-                    parent[v] = u;
+                u = t.vert;
+
+                if (level[u] < 0) { // if neighbor has not been seen yet
+                    // Mark the neighbor and enqueue it
+                    level[u] = level[v] + 1;
+                    parent[u] = v;
+                    order[tail++] = u;
                 }
-                t = t.next;
             }
         }
+
+        tree.count = tail;
+        return tree;
+    }
+    
+    // This code implements Dijkstra's algorithm to find the shortest path tree (SPT) in a weighted graph from a source vertex to all other vertices
+    public void SPT_Dijkstra(int s) {
+
+        ShortestPathTree spt = shortestPaths(s);
         
         // Print the shortest path tree
         System.out.print("\nShortest Path Tree (SPT) using Dijkstra's Algorithm:\n\n");
@@ -368,23 +727,78 @@ class GraphLists {
 
             if (i != s) {
 
-                System.out.print("Vertex " + toChar(i) + ", distance = " + dist[i] + ", path = ");
-                printPath(parent, i);
+                if (spt.reaches(i)) {
+
+                    System.out.print("Vertex " + toChar(i) + ", distance = " + spt.dist[i] + ", path = ");
+                    printPath(spt.path(i));
+                } else {
+
+                    System.out.print("Vertex " + toChar(i) + ", distance = infinity, path = none");
+                }
                 System.out.println("");
             }
         }
     }
+
+    // Dijkstra's algorithm driven by an indexed heap, O(E log V)
+    // Returns the dist[] and parent[] arrays instead of printing them
+    // Distances are long so that dist[u] + w cannot overflow
+    public ShortestPathTree shortestPaths(int s) {
+
+        int u, v;
+        long d;
+        long[] dist = new long[V + 1];
+        int[] parent = new int[V + 1];
+        int[] hPos = new int[V + 1];
+        boolean[] done = new boolean[V + 1];
+
+        // Set initial values for arrays
+        for (v = 0; v <= V; v++) {
+
+            dist[v] = Long.MAX_VALUE;
+        }
+
+        DistHeap h = new DistHeap(V, dist, hPos);
+        dist[s] = 0;
+        h.insert(s);
+
+        // Take the closest vertex off the heap until every reachable vertex is done
+        while (!h.isEmpty()) {
+
+            u = h.remove();
+            done[u] = true;
+
+            for (Node t = adj[u]; t != z; t = t.next) {
+                v = t.vert;
+                d = dist[u] + t.wgt;
+
+                if (!done[v] && d < dist[v]) {
+                    dist[v] = d;
+                    parent[v] = u;
+                    tracer.relax(u, v, d);
+
+                    if (h.contains(v)) {
+
+                        h.decreaseKey(v);
+                    } else {
+
+                        h.insert(v);
+                    }
+                }
+            }
+        }
+
+        return new ShortestPathTree(s, dist, parent);
+    }
     
-    // Print the path from the source node to a given vertex
-    private void printPath(int[] parent, int v) {
+    // Print a path given as a list of vertices from the source node
+    private void printPath(int[] path) {
 
-        if (parent[v] == -1) {
+        System.out.print(toChar(path[0]));
 
-            System.out.print(toChar(v));
-        } else {
+        for (int i = 1; i < path.length; i++) {
 
-            printPath(parent, parent[v]);
-            System.out.print("->" + toChar(v));
+            System.out.print("->" + toChar(path[i]));
         }
     }
 } 
@@ -412,8 +826,16 @@ public class PrimLists {
             System.out.println("\nEnter the starting vertex of the graph (as a number): ");
             int s = Integer.parseInt(sc.nextLine());
             
-            // Create a GraphLists object using the graph file name
-            GraphLists g = new GraphLists(fName);
+            // Create a GraphLists object using the graph file name, mapping it if it is a binary graph file
+            GraphLists g;
+
+            if (BinaryGraphFile.isBinary(fName)) {
+
+                g = new GraphLists(BinaryGraphFile.open(fName));
+            } else {
+
+                g = new GraphLists(fName);
+            }
             
             // Display the graph
             g.display();
@@ -472,8 +894,8 @@ class Heap {
 
         while (dist[v] < dist[a[k / 2]]) {
 
-            hPos[a[k]]= k / 2; 
             a[k] = a[k / 2];
+            hPos[a[k]] = k; // the parent moves down to position k
             k = k / 2;
         }
         a[k] = v;
@@ -528,12 +950,23 @@ class Heap {
 
         int v = a[1];
         hPos[v] = 0; // v is no longer in heap        
-        a[N + 1] = 0;  // put null node into empty spot
-        a[1] = a[N--];
-        siftDown(1);
+        a[1] = a[N];
+        a[N--] = 0;  // put null node into empty spot
+
+        // Only sift if something is left, otherwise v would get its hPos back
+        if (N > 0) {
+
+            siftDown(1);
+        }
         return v;
     } 
 
+    // Called after dist[v] has been lowered, moves v up to its new place in the heap
+    public void decreaseKey(int v) {
+
+        siftUp(hPos[v]);
+    }
+
     // display heap values and their priorities or distances
     void display() { 
 
@@ -555,80 +988,4 @@ class Heap {
         } 
     }
 
-} 
-
-// This is an implementation of a queue using a linked list data structure. 
-// In this implementation, nodes are added to the back of the queue and removed from the front, 
-// hence the use of pointers for the head and tail of the queue which point to the first and last nodes respectively.
-class Queue { 
-    // Node class for the linked list
-    private class Node { 
-
-        int data; // data stored in the node
-        Node next; // reference to the next node
-    } 
-    
-    Node z, head, tail; // z node represents the end of the list, head points to the first node, tail points to the last node
-
-    // Constructor to create an empty queue
-    public Queue() {
-
-        z = new Node(); 
-        z.next = z;
-        head = z; 
-        tail = null;
-    } 
-
-    // Method to add a value to the back of the queue (insert operation)
-    public void enQueue(int x) {
-         
-        Node t;
-        t = new Node(); // create a new node
-        t.data = x; // set the data of the new node to x
-        t.next = z; // set the next reference of the new node to z
-        
-        // case of an empty list
-        if (head == z) { 
-            // set the head to the new node
-            head = t; 
-        } 
-        // case of a non-empty list
-        else { 
-            // set the next reference of the current tail to the new node
-            tail.next = t; 
-        } 
-
-        tail = t; // set the tail to the new node as it is now at the end of the queue
-        // System.out.println("\nLinked List enQueue: " + x + ": ");
-        // display();
-    }
-    
-    // Method to remove a value from the front of the queue (remove operation)
-    public int deQueue() { 
-
-        int t = head.data; // get the data of the node at the front of the queue
-        head = head.next; // move the head to the next node
-        // System.out.println("\nLinked list deQueue: " + t + ": ");
-        // display();
-        return t; // return the data of the node that was removed
-    } 
-
-    // Method to check if the queue is empty
-    public boolean isEmpty() { 
-
-        return head == head.next; // return true if the head is the z node, false otherwise
-    } 
-
-    // Method to display the contents of the queue 
-    public void display() { 
-
-        Node t = head;
-        // loop through the nodes in the queue
-        while (t != t.next) { 
-            // print the data of the current node
-            System.out.print(t.data + "  "); 
-            t = t.next; // move to the next node
-        } 
-        System.out.println("\n");
-    } 
 } 
\ No newline at end of file
@@ -0,0 +1,117 @@
+// Title: Benchmarks for the Algorithms in PrimLists
+
+/*
+    Times Prim's algorithm, Dijkstra's algorithm and the depth first and breadth first traversals on synthetic random
+    sparse, dense, grid and power-law graphs, both on the GraphLists adjacency lists and on the CSRGraph copy of the
+    same graph. See Bench for what each column means.
+
+        java PrimListsBench [small|medium|large|graph.txt|graph.bin]
+
+    A graph file, for example one written by GraphGenerator, is benchmarked on its own in place of the synthetic
+    graphs, so the benchmarks can be run on the same inputs as other tests.
+
+    The same operations run under JMH, with forks, error bounds and the GC profiler, from the bench/prim Maven module
+    (see README.md). This driver is the quick check that needs nothing beyond the JDK.
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Driver code for the PrimLists benchmarks
+class PrimListsBench {
+
+    // Synthetic inputs, each one a name for the graph param of the JMH benchmarks
+    static final String[] GRAPHS = {"sparse", "dense", "grid", "powerlaw"};
+
+    public static void main(String[] args) {
+
+        String size = args.length > 0 ? args[0] : "small";
+        boolean file = size.endsWith(".txt") || size.endsWith(".bin");
+        int warmups = file || size.equals("large") ? 2 : size.equals("medium") ? 5 : 20;
+        int iterations = file || size.equals("large") ? 5 : size.equals("medium") ? 10 : 50;
+
+        Bench.header();
+        for (String graph : file ? new String[] {size} : GRAPHS) {
+
+            GraphLists g = input(graph, size);
+            String name = " " + graph + "(V=" + g.vertices() + ",E=" + g.edges() + ")";
+
+            for (Map.Entry<String, LongSupplier> op : ops(g).entrySet()) {
+
+                // The O(V^2) version is only worth timing while V is small
+                if (op.getKey().equals("GraphLists.MST_Prim_dense") && g.vertices() > 20000) {
+
+                    continue;
+                }
+                Bench.run(op.getKey() + name, warmups, iterations, op.getValue()::getAsLong);
+            }
+        }
+    }
+
+    // One operation on one input, for the JMH benchmarks in the bench module, which call it by reflection
+    static LongSupplier op(String op, String graph, String size) {
+
+        LongSupplier run = ops(input(graph, size)).get(op);
+
+        if (run == null) {
+
+            throw new IllegalArgumentException("No benchmark named " + op);
+        }
+        return run;
+    }
+
+    // Builds a synthetic graph of the given size (small, medium or large), or loads a text or binary graph file
+    static GraphLists input(String graph, String size) {
+
+        boolean large = size.equals("large"), medium = size.equals("medium");
+        int n = large ? 1000000 : medium ? 100000 : 1000;
+        int grid = large ? 1000 : medium ? 316 : 32;
+        int dense = large ? 4000 : medium ? 2000 : 500;
+
+        switch (graph) {
+
+            case "sparse":
+                return new GraphLists(SyntheticGraphs.sparse(n, 8, 1), GraphTracer.NONE);
+            case "dense":
+                return new GraphLists(SyntheticGraphs.dense(dense, 2), GraphTracer.NONE);
+            case "grid":
+                return new GraphLists(SyntheticGraphs.grid(grid, grid, 3), GraphTracer.NONE);
+            case "powerlaw":
+                return new GraphLists(SyntheticGraphs.powerLaw(n, 4, 4), GraphTracer.NONE);
+            default:
+                try {
+                    return graph.endsWith(".bin") ? new GraphLists(BinaryGraphFile.open(graph))
+                            : new GraphLists(EdgeFileReader.load(graph), GraphTracer.NONE);
+                } catch (IOException e) {
+
+                    throw new UncheckedIOException(e);
+                }
+        }
+    }
+
+    // The operations timed on one graph, by name, both on the GraphLists and on its CSRGraph copy
+    static Map<String, LongSupplier> ops(GraphLists g) {
+
+        final CSRGraph c = g.toCSR();
+        final int V = c.vertices();
+        final DFSTree dfs = new DFSTree(V);
+        final BFSTree bfs = new BFSTree(V);
+        final int s = 1;
+        Map<String, LongSupplier> ops = new LinkedHashMap<>();
+
+        ops.put("GraphLists.MST_Prim_dense", () -> g.MST_Prim(GraphLists.PRIM_DENSE).weight);
+        ops.put("GraphLists.MST_Prim_heap", () -> g.MST_Prim(GraphLists.PRIM_HEAP).weight);
+        ops.put("GraphLists.SPT_Dijkstra", () -> g.shortestPaths(s).dist[V]);
+        ops.put("GraphLists.DF", () -> g.depthFirst(s, dfs).count);
+        ops.put("GraphLists.BF", () -> g.breadthFirst(s, bfs).count);
+        ops.put("CSRGraph.MST_Prim", () -> c.MST_Prim().weight);
+        ops.put("CSRGraph.SPT_Dijkstra", () -> c.SPT_Dijkstra(s).dist[V]);
+        ops.put("CSRGraph.DF", () -> c.DF(s, dfs).count);
+        ops.put("CSRGraph.BF", () -> c.BF(s, bfs).count);
+        return ops;
+    }
+}
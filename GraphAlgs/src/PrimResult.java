@@ -0,0 +1,34 @@
+// Title: Result of a Minimum Spanning Tree Built with Prim's Algorithm
+
+/*
+    Holds the output of one run of Prim's algorithm so that callers can use the tree without parsing printed output.
+
+    parent[v] is the vertex that v was attached to the tree from (0 if v is a root of the tree or forest).
+    wgt[v] is the weight of the edge parent[v]--v (Integer.MAX_VALUE if v could not be reached from the start vertex).
+    weight is the total weight of the tree.
+*/
+
+// This class stores the parent array, per-vertex edge weights and total weight of a minimum spanning tree
+class PrimResult {
+
+    public int[] parent;
+    public int[] wgt;
+    public long weight;
+
+    // Constructor - takes the parent and weight arrays and sums the weights of all tree edges
+    public PrimResult(int[] _parent, int[] _wgt) {
+
+        parent = _parent;
+        wgt = _wgt;
+        weight = 0;
+
+        // Only count vertices that were actually connected to the tree
+        for (int v = 1; v < wgt.length; v++) {
+
+            if (wgt[v] != Integer.MAX_VALUE) {
+
+                weight += wgt[v];
+            }
+        }
+    }
+}
@@ -0,0 +1,567 @@
+// Title: Concurrent Graph Query Server on localhost
+
+/*
+    Full Program Description:
+
+    Loads a graph once and answers MST, BFS and shortest path queries from many clients at the same time, instead of
+    running PrimLists or KruskalTrees once per question. The graph is held as a CSRGraph, which never changes after it
+    is built, so every thread can read it without locking.
+
+    The server listens on a TCP socket bound to the loopback address only. Clients send one request per line and get
+    one answer per line:
+
+        DIST s t       OK <distance>, or OK inf when t cannot be reached (bidirectional Dijkstra)
+        PATH s t       OK <distance> <s> ... <t>, or OK inf
+        SPT s          OK <vertices reached> <largest distance> (Dijkstra's algorithm from s)
+        BFS s          OK <vertices reached> <largest level> (breadth first search from s)
+        MST            OK <edges> <total weight> (Prim's algorithm, worked out once and kept)
+        STATS          OK <requests> <p50 us> <p99 us> over every request answered so far
+        BATCH n        followed by n request lines, answered in order with n lines. The n requests run at the same
+                       time, each on its own thread, so one round trip carries many queries
+        QUIT           closes the connection
+
+    A request that cannot be answered gets ERR and the reason.
+
+    Each connection gets its own thread, and every request in a batch gets one more. On Java 21 and later these are
+    virtual threads from Executors.newVirtualThreadPerTaskExecutor(), which is looked up by reflection so the class
+    still compiles and runs on older versions; there it falls back to a cached pool of ordinary threads.
+
+    The search arrays (PointToPoint, DijkstraScratch, BFSTree) are O(V) each, too big to allocate per request, and
+    with one virtual thread per request a ThreadLocal would not keep them either. So they are kept in a pool of
+    Workers: a request takes one, or makes one if none is free, and puts it back when done. A semaphore lets at most
+    2 searches per core run at once, so there are never more Workers than that however many requests are waiting;
+    the rest wait their turn, which is cheap for a virtual thread.
+
+    The time each request takes on the server is recorded in a histogram with 16 steps per power of two, so p50 and
+    p99 are within about 6%.
+
+    Run this class as a program to serve a graph, or to load it with clients on the same machine:
+
+        java QueryServer graph.txt|graph.bin [port]
+        java QueryServer graph.txt|graph.bin bench [clients] [requests] [batch]
+*/
+
+// Import necessary libraries
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// This class serves queries on one shared CSRGraph over a localhost socket
+final class QueryServer implements Closeable {
+
+    // Largest number of requests allowed in one BATCH
+    static final int MAX_BATCH = 100000;
+
+    private final CSRGraph g;
+    private final ServerSocket server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+    private final Semaphore searches = new Semaphore(2 * Runtime.getRuntime().availableProcessors());
+    private final Latencies latencies = new Latencies();
+    private volatile PrimResult mst;
+    private Thread acceptor;
+
+    // Search arrays for one request at a time, each made when first needed
+    private static final class Worker {
+
+        PointToPoint p2p;
+        DijkstraScratch scratch;
+        BFSTree bfs;
+    }
+
+    // Histogram of request times in nanoseconds, 16 buckets per power of two
+    static final class Latencies {
+
+        private final AtomicLongArray counts = new AtomicLongArray(64 * 16);
+
+        public void record(long nanos) {
+
+            counts.incrementAndGet(bucket(Math.max(0, nanos)));
+        }
+
+        public long count() {
+
+            long n = 0;
+
+            for (int i = 0; i < counts.length(); i++) {
+
+                n += counts.get(i);
+            }
+            return n;
+        }
+
+        // Time below which the fraction q of the recorded times fall, 0 if none have been recorded
+        public long percentile(double q) {
+
+            long n = count(), seen = 0;
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+
+            for (int i = 0; i < counts.length() && n > 0; i++) {
+
+                seen += counts.get(i);
+                if (seen >= rank) {
+
+                    return upper(i);
+                }
+            }
+            return 0;
+        }
+
+        // Values below 16 have a bucket each, larger ones share a bucket with those that agree in the top 5 bits
+        private static int bucket(long v) {
+
+            if (v < 16) {
+
+                return (int) v;
+            }
+            int e = 63 - Long.numberOfLeadingZeros(v);
+            return (e - 3) * 16 + (int) ((v >>> (e - 4)) & 15);
+        }
+
+        // Largest value in bucket i
+        private static long upper(int i) {
+
+            if (i < 16) {
+
+                return i;
+            }
+            int e = i / 16 + 3;
+            long sub = i % 16;
+            return ((16 + sub + 1) << (e - 4)) - 1;
+        }
+    }
+
+    // Constructor - binds to the loopback address on the given port, 0 for any free port
+    public QueryServer(CSRGraph _g, int port) throws IOException {
+
+        g = _g;
+        server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+
+        ExecutorService virtual = virtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtual != null ? virtual : Executors.newCachedThreadPool(r -> {
+
+            Thread t = new Thread(r, "query");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when this Java has it, otherwise null
+    private static ExecutorService virtualThreadExecutor() {
+
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    public int port() {
+
+        return server.getLocalPort();
+    }
+
+    public boolean usesVirtualThreads() {
+
+        return virtualThreads;
+    }
+
+    public Latencies latencies() {
+
+        return latencies;
+    }
+
+    // Starts accepting connections on a background thread
+    public synchronized void start() {
+
+        if (acceptor != null) {
+
+            return;
+        }
+
+        acceptor = new Thread(() -> {
+
+            while (!server.isClosed()) {
+
+                try {
+                    Socket socket = server.accept();
+                    executor.execute(() -> serve(socket));
+                } catch (SocketException e) {
+                    break; // closed
+                } catch (IOException e) {
+                    System.err.println("QueryServer: " + e.getMessage());
+                }
+            }
+        }, "query-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // Stops accepting connections and ends the threads still running
+    @Override
+    public void close() throws IOException {
+
+        server.close();
+        executor.shutdownNow();
+    }
+
+    // Reads requests from one connection until it is closed or sends QUIT
+    private void serve(Socket socket) {
+
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                     StandardCharsets.US_ASCII));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+                     StandardCharsets.US_ASCII))) {
+
+            String line;
+
+            while ((line = in.readLine()) != null) {
+
+                line = line.trim();
+
+                if (line.isEmpty()) {
+
+                    continue;
+                }
+                if (line.equalsIgnoreCase("QUIT")) {
+
+                    break;
+                }
+
+                String[] words = line.split("\\s+");
+
+                if (words[0].equalsIgnoreCase("BATCH")) {
+
+                    batch(words, in, out);
+                } else {
+
+                    out.write(timed(line));
+                    out.newLine();
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away, nothing to answer
+        }
+    }
+
+    // Runs the requests of one batch at the same time and writes their answers in order
+    private void batch(String[] words, BufferedReader in, BufferedWriter out) throws IOException {
+
+        int n;
+
+        try {
+            n = Integer.parseInt(words[1]);
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            n = -1;
+        }
+        if (n < 0 || n > MAX_BATCH) {
+
+            out.write("ERR BATCH needs a count from 0 to " + MAX_BATCH);
+            out.newLine();
+            return;
+        }
+
+        List<Future<String>> answers = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+
+            String request = in.readLine();
+
+            if (request == null) {
+
+                throw new IOException("Connection closed inside a batch");
+            }
+            answers.add(executor.submit(() -> timed(request.trim())));
+        }
+
+        for (Future<String> answer : answers) {
+
+            try {
+                out.write(answer.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            } catch (ExecutionException e) {
+                out.write("ERR " + e.getCause());
+            }
+            out.newLine();
+        }
+    }
+
+    // Answers one request and records how long it took
+    private String timed(String request) {
+
+        long start = System.nanoTime();
+        String answer = answer(request);
+
+        latencies.record(System.nanoTime() - start);
+        return answer;
+    }
+
+    // Answers one request line, see the description at the top for the requests
+    public String answer(String request) {
+
+        String[] words = request.trim().split("\\s+");
+        Worker w;
+
+        searches.acquireUninterruptibly();
+        w = workers.poll();
+        if (w == null) {
+
+            w = new Worker();
+        }
+
+        try {
+            switch (words[0].toUpperCase(Locale.ROOT)) {
+
+                case "DIST":
+                    return dist(w, vertex(words, 1, 2), vertex(words, 2, 2), false);
+                case "PATH":
+                    return dist(w, vertex(words, 1, 2), vertex(words, 2, 2), true);
+                case "SPT":
+                    return spt(w, vertex(words, 1, 1));
+                case "BFS":
+                    return bfs(w, vertex(words, 1, 1));
+                case "MST":
+                    return mst();
+                case "STATS":
+                    return String.format(Locale.ROOT, "OK %d %.1f %.1f", latencies.count(),
+                            latencies.percentile(0.50) / 1e3, latencies.percentile(0.99) / 1e3);
+                default:
+                    return "ERR unknown request " + words[0];
+            }
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        } finally {
+            workers.offer(w);
+            searches.release();
+        }
+    }
+
+    // Vertex number at words[i], checked against the graph; count is how many vertices the command takes, for the error
+    private int vertex(String[] words, int i, int count) {
+
+        if (i >= words.length) {
+
+            throw new IllegalArgumentException(words[0] + " needs " + count + (count == 1 ? " vertex" : " vertices"));
+        }
+
+        int v = Integer.parseInt(words[i]);
+
+        if (v < 1 || v > g.vertices()) {
+
+            throw new IllegalArgumentException("Vertex " + v + " is not in the graph");
+        }
+        return v;
+    }
+
+    private String dist(Worker w, int s, int t, boolean path) {
+
+        if (w.p2p == null) {
+
+            w.p2p = new PointToPoint(g);
+        }
+
+        PathResult r = w.p2p.bidirectional(s, t);
+
+        if (!r.found()) {
+
+            return "OK inf";
+        }
+
+        StringBuilder sb = new StringBuilder("OK ").append(r.distance);
+
+        if (path) {
+
+            for (int v : r.path) {
+
+                sb.append(' ').append(v);
+            }
+        }
+        return sb.toString();
+    }
+
+    private String spt(Worker w, int s) {
+
+        if (w.scratch == null) {
+
+            w.scratch = new DijkstraScratch(g.vertices());
+        }
+
+        ShortestPathTree spt = g.SPT_Dijkstra(s, w.scratch);
+        long far = 0;
+
+        for (int i = 0; i < w.scratch.count; i++) {
+
+            far = Math.max(far, spt.dist[w.scratch.order[i]]);
+        }
+        return "OK " + w.scratch.count + " " + far;
+    }
+
+    private String bfs(Worker w, int s) {
+
+        if (w.bfs == null) {
+
+            w.bfs = new BFSTree(g.vertices());
+        }
+
+        BFSTree tree = g.BF(s, w.bfs);
+        return "OK " + tree.count + " " + tree.level[tree.order[tree.count - 1]];
+    }
+
+    // The MST never changes, so the first request works it out and the rest reuse it
+    private String mst() {
+
+        PrimResult r = mst;
+
+        if (r == null) {
+
+            synchronized (this) {
+
+                if (mst == null) {
+
+                    mst = g.MST_Prim();
+                }
+                r = mst;
+            }
+        }
+
+        int edges = 0;
+        for (int v = 1; v <= g.vertices(); v++) {
+
+            edges += r.parent[v] != 0 ? 1 : 0;
+        }
+        return "OK " + edges + " " + r.weight;
+    }
+
+    // Serves the graph named by the first argument, or loads a server with clients when the second is "bench"
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java QueryServer <graph.txt|graph.bin> [port]");
+            System.out.println("       java QueryServer <graph.txt|graph.bin> bench [clients] [requests] [batch]");
+            return;
+        }
+
+        long start = System.nanoTime();
+        CSRGraph g = BinaryGraphFile.isBinary(args[0]) ? BinaryGraphFile.open(args[0]) : CSRGraph.load(args[0]);
+        boolean bench = args.length > 1 && args[1].equals("bench");
+        QueryServer qs = new QueryServer(g, !bench && args.length > 1 ? Integer.parseInt(args[1]) : 0);
+
+        qs.start();
+        System.out.printf("Loaded V = %d, E = %d in %.1f ms, listening on %s:%d with %s%n", g.vertices(), g.edges(),
+                (System.nanoTime() - start) / 1e6, InetAddress.getLoopbackAddress().getHostAddress(), qs.port(),
+                qs.usesVirtualThreads() ? "virtual threads" : "a cached thread pool (no virtual threads before Java 21)");
+
+        if (!bench) {
+
+            Thread.currentThread().join(); // serve until killed
+        }
+
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int batch = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        Latencies roundTrips = new Latencies();
+        Thread[] threads = new Thread[clients];
+
+        start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+
+            long seed = c;
+            threads[c] = new Thread(() -> client(qs.port(), g.vertices(), requests, batch, seed, roundTrips));
+            threads[c].start();
+        }
+        for (Thread t : threads) {
+
+            t.join();
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%d clients x %d DIST requests in batches of %d: %.0f requests/s%n", clients, requests,
+                batch, clients * (double) requests / (nanos / 1e9));
+        System.out.printf("Round trip per request  p50 %8.1f us  p99 %8.1f us%n", roundTrips.percentile(0.50) / 1e3,
+                roundTrips.percentile(0.99) / 1e3);
+        System.out.printf("Server time per request p50 %8.1f us  p99 %8.1f us%n",
+                qs.latencies().percentile(0.50) / 1e3, qs.latencies().percentile(0.99) / 1e3);
+        qs.close();
+    }
+
+    // Sends random DIST requests in batches and records the round trip of each request
+    private static void client(int port, int V, int requests, int batch, long seed, Latencies roundTrips) {
+
+        SplittableRandom rnd = new SplittableRandom(seed);
+
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                     StandardCharsets.US_ASCII));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+                     StandardCharsets.US_ASCII))) {
+
+            for (int sent = 0; sent < requests; sent += batch) {
+
+                int n = Math.min(batch, requests - sent);
+                long start = System.nanoTime();
+
+                if (batch > 1) {
+
+                    out.write("BATCH " + n);
+                    out.newLine();
+                }
+                for (int i = 0; i < n; i++) {
+
+                    out.write("DIST " + (1 + rnd.nextInt(V)) + " " + (1 + rnd.nextInt(V)));
+                    out.newLine();
+                }
+                out.flush();
+
+                for (int i = 0; i < n; i++) {
+
+                    String answer = in.readLine();
+
+                    if (answer == null || !answer.startsWith("OK")) {
+
+                        throw new IOException("Bad answer " + answer);
+                    }
+                }
+
+                long nanos = System.nanoTime() - start;
+                for (int i = 0; i < n; i++) {
+
+                    roundTrips.record(nanos);
+                }
+            }
+            out.write("QUIT");
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+// Title: Cache of Shortest Path Trees Keyed by Source Vertex
+
+/*
+    Full Program Description:
+
+    When the same few source vertices are asked for again and again, running Dijkstra's algorithm every time is
+    wasted work. SPTCache sits in front of GraphLists.shortestPaths(s) and keeps the ShortestPathTree of each source
+    it has answered, so a repeated source costs one hash lookup instead of a whole search.
+
+    Every tree holds a long dist[] and an int[] parent[] of V + 1 entries, 12 bytes per vertex, so the cache is given
+    a memory budget in bytes and works out how many trees fit in it. When it is full the least recently used tree is
+    dropped (LRU). This is a LinkedHashMap in access order: every get moves the tree to the back of the map, and
+    removeEldestEntry drops the one at the front after an insert makes the map too big.
+
+    The trees are only correct for the graph they were computed on. GraphLists counts its changes in modCount(), and
+    the cache remembers the count it last saw, so the first get after addEdge, removeEdge or updateWeight empties the
+    cache before answering.
+
+    hits, misses, evictions and invalidations are counted so the hit rate can be checked against the workload. The
+    trees handed out are shared with the cache and must not be changed by the caller. The methods are synchronized,
+    so one cache may be shared by several threads, but a miss holds the lock while Dijkstra's algorithm runs.
+
+    Run this class as a program to replay a skewed workload, where a few hub sources are asked for most often:
+
+        java SPTCache graph.txt|graph.bin [budgetMB] [queries] [hubs]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// This class caches the shortest path trees of a GraphLists, dropping the least recently used when full
+class SPTCache {
+
+    // Rough size of a cached tree beyond its arrays: the tree, the map entry and the array headers
+    static final int TREE_OVERHEAD_BYTES = 128;
+
+    private final GraphLists g;
+    private final int capacity;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees;
+    private int modCount;
+    private long hits, misses, evictions, invalidations;
+
+    // Constructor - caches trees of graph g using at most about maxBytes, but always at least one tree
+    public SPTCache(GraphLists _g, long maxBytes) {
+
+        g = _g;
+        capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / bytesPerTree(g.vertices())));
+        modCount = g.modCount();
+
+        // Access order, so iteration runs from the least to the most recently used tree
+        trees = new LinkedHashMap<Integer, ShortestPathTree>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest) {
+
+                if (size() > capacity) {
+
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Memory used by one cached tree of a graph with V vertices
+    static long bytesPerTree(int V) {
+
+        return 12L * (V + 1) + TREE_OVERHEAD_BYTES;
+    }
+
+    // Shortest path tree from s, from the cache if it is there and the graph has not changed since
+    public synchronized ShortestPathTree get(int s) {
+
+        if (s < 1 || s > g.vertices()) {
+
+            throw new IllegalArgumentException("Vertex " + s + " is not in the graph");
+        }
+
+        validate();
+
+        ShortestPathTree spt = trees.get(s);
+
+        if (spt != null) {
+
+            hits++;
+            return spt;
+        }
+
+        misses++;
+        spt = g.shortestPaths(s);
+        trees.put(s, spt);
+        return spt;
+    }
+
+    // Length of the shortest path from s to t, Long.MAX_VALUE if there is none
+    public long distance(int s, int t) {
+
+        if (t < 1 || t > g.vertices()) {
+
+            throw new IllegalArgumentException("Vertex " + t + " is not in the graph");
+        }
+        return get(s).dist[t];
+    }
+
+    // Returns true if the tree from s is cached and still valid, without counting a hit or a miss
+    public synchronized boolean contains(int s) {
+
+        validate();
+        return trees.containsKey(s);
+    }
+
+    // Drops every cached tree
+    public synchronized void clear() {
+
+        trees.clear();
+    }
+
+    // Empties the cache if the graph has been changed since the last call
+    private void validate() {
+
+        if (modCount != g.modCount()) {
+
+            if (!trees.isEmpty()) {
+
+                invalidations++;
+                trees.clear();
+            }
+            modCount = g.modCount();
+        }
+    }
+
+    public synchronized int size() {
+
+        return trees.size();
+    }
+
+    public int capacity() {
+
+        return capacity;
+    }
+
+    public synchronized long hits() {
+
+        return hits;
+    }
+
+    public synchronized long misses() {
+
+        return misses;
+    }
+
+    public synchronized long evictions() {
+
+        return evictions;
+    }
+
+    // Number of times a change to the graph emptied the cache
+    public synchronized long invalidations() {
+
+        return invalidations;
+    }
+
+    // Fraction of gets answered from the cache
+    public synchronized double hitRate() {
+
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    @Override
+    public synchronized String toString() {
+
+        return String.format("%d/%d trees, %d hits, %d misses, %d evictions, %d invalidations, hit rate %.1f%%",
+                trees.size(), capacity, hits, misses, evictions, invalidations, 100 * hitRate());
+    }
+
+    // Replays a workload where most queries come from a few hub sources, with and without the cache
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java SPTCache <graph.txt|graph.bin> [budgetMB] [queries] [hubs]");
+            return;
+        }
+
+        GraphLists g = BinaryGraphFile.isBinary(args[0]) ? new GraphLists(BinaryGraphFile.open(args[0]))
+                : new GraphLists(args[0], GraphTracer.NONE);
+        long budget = (args.length > 1 ? Long.parseLong(args[1]) : 256) << 20;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int V = g.vertices();
+        int hubs = Math.min(V, args.length > 3 ? Integer.parseInt(args[3]) : 200);
+
+        // 90% of the queries come from the hubs, the rest from anywhere
+        SplittableRandom rnd = new SplittableRandom(1);
+        int[] hub = new int[hubs];
+        int[] sources = new int[queries];
+        int[] targets = new int[queries];
+
+        for (int i = 0; i < hubs; i++) {
+
+            hub[i] = 1 + rnd.nextInt(V);
+        }
+        for (int q = 0; q < queries; q++) {
+
+            sources[q] = rnd.nextInt(10) < 9 ? hub[rnd.nextInt(hubs)] : 1 + rnd.nextInt(V);
+            targets[q] = 1 + rnd.nextInt(V);
+        }
+
+        SPTCache cache = new SPTCache(g, budget);
+        long start, plainNanos, cachedNanos, sum = 0, cachedSum = 0;
+
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+
+            sum += g.shortestPaths(sources[q]).dist[targets[q]];
+        }
+        plainNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+
+            cachedSum += cache.distance(sources[q], targets[q]);
+        }
+        cachedNanos = System.nanoTime() - start;
+
+        System.out.println("V = " + V + ", E = " + g.edges() + ", " + queries + " queries, " + hubs + " hubs, budget "
+                + (budget >> 20) + " MB");
+        System.out.printf("Dijkstra every time %10.3f ms/query%n", plainNanos / 1e6 / queries);
+        System.out.printf("SPTCache            %10.3f ms/query%n", cachedNanos / 1e6 / queries);
+        System.out.println(cache);
+        System.out.println(sum == cachedSum ? "Cached distances match Dijkstra" : "Cached distances differ");
+
+        // A change to the graph must empty the cache
+        g.addEdge(1, V, 1);
+        cache.get(sources[0]);
+        System.out.println("After addEdge: " + cache);
+    }
+}
@@ -0,0 +1,94 @@
+// Title: Disjoint Sets Grouped by Set
+
+/*
+    Full Program Description:
+
+    A union-find forest only records the parent of each vertex, so listing the members of every set means grouping
+    the vertices by root. SetPartition.of() does this in one linear pass in the style of a counting sort, and keeps the
+    result in primitive arrays:
+
+        members[start[k]] .. members[start[k + 1] - 1] are the vertices of set k, in increasing order
+        root[k] is the root vertex of set k
+        setOf[v] is the number of the set that vertex v belongs to
+
+    Sets are numbered 0..count-1 in the order their lowest numbered vertex appears. UnionFindSets.components() and
+    ConsoleTracer both build their sets here.
+*/
+
+// Import necessary libraries
+import java.util.Arrays;
+
+// This class holds the sets of a union-find forest grouped into primitive arrays
+class SetPartition {
+
+    public int count;
+    public int[] start;
+    public int[] members;
+    public int[] root;
+    public int[] setOf;
+
+    public SetPartition(int _count, int[] _start, int[] _members, int[] _root, int[] _setOf) {
+
+        count = _count;
+        start = _start;
+        members = _members;
+        root = _root;
+        setOf = _setOf;
+    }
+
+    // Groups vertices 1..N by set, where treeParent[] is a union-find parent array with treeParent[root] == root
+    public static SetPartition of(int[] treeParent) {
+
+        int N = treeParent.length - 1;
+        int u, v, k, r;
+        int[] setOf = new int[N + 1];
+        int[] known = new int[N + 1]; // set number + 1 for each vertex whose set is found, 0 if not found yet
+        int[] start = new int[N + 1];
+        int[] members = new int[N];
+        int[] roots = new int[N];
+        int count = 0;
+
+        // Number the sets and count how many vertices fall in each one. A walk stops at the first vertex whose set is
+        // already found and records the set for every vertex it passed, so each vertex is walked over at most once
+        for (u = 1; u <= N; ++u) {
+
+            for (r = u; known[r] == 0 && r != treeParent[r]; r = treeParent[r]) {
+            }
+
+            if (known[r] == 0) {
+
+                roots[count] = r;
+                known[r] = ++count;
+            }
+            for (v = u; known[v] == 0; v = treeParent[v]) {
+
+                known[v] = known[r];
+            }
+            setOf[u] = known[u] - 1;
+            start[setOf[u] + 1]++;
+        }
+
+        // Prefix sums give where each set starts in members[]
+        for (k = 0; k < count; ++k) {
+
+            start[k + 1] += start[k];
+        }
+
+        // Drop every vertex into its bucket, which keeps the vertices of each set in increasing order
+        int[] next = new int[count];
+        System.arraycopy(start, 0, next, 0, count);
+
+        for (u = 1; u <= N; ++u) {
+
+            members[next[setOf[u]]++] = u;
+        }
+
+        return new SetPartition(count, Arrays.copyOf(start, count + 1), members, Arrays.copyOf(roots, count), setOf);
+    }
+
+    // Number of vertices in set k
+    public int size(int k) {
+
+        return start[k + 1] - start[k];
+    }
+}
@@ -0,0 +1,56 @@
+// Title: Result of a Single Source Shortest Path Search
+
+/*
+    Holds the output of one run of Dijkstra's algorithm from a source vertex s.
+
+    dist[v] is the length of the shortest path from s to v (Long.MAX_VALUE if v cannot be reached).
+    parent[v] is the vertex before v on that path (0 for the source and for unreachable vertices).
+*/
+
+// This class stores the dist[] and parent[] arrays of a shortest path tree
+class ShortestPathTree {
+
+    public int source;
+    public long[] dist;
+    public int[] parent;
+
+    // Constructor - takes the source vertex and the arrays filled in by the search
+    public ShortestPathTree(int s, long[] _dist, int[] _parent) {
+
+        source = s;
+        dist = _dist;
+        parent = _parent;
+    }
+
+    // Returns true if there is a path from the source to v
+    public boolean reaches(int v) {
+
+        return dist[v] != Long.MAX_VALUE;
+    }
+
+    // Returns the vertices on the path from the source to v, or an empty array if v cannot be reached
+    // The path is rebuilt by following parent[] backwards, so no recursion is needed
+    public int[] path(int v) {
+
+        int n, u;
+
+        if (!reaches(v)) {
+
+            return new int[0];
+        }
+
+        // Count the vertices on the path first so the array has the right size
+        n = 1;
+        for (u = v; u != source; u = parent[u]) {
+
+            n++;
+        }
+
+        int[] p = new int[n];
+        for (u = v; n > 0; u = parent[u]) {
+
+            p[--n] = u;
+        }
+        return p;
+    }
+}
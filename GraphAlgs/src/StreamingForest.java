@@ -0,0 +1,291 @@
+// Title: Streaming Connected Components, Spanning Forest and MST
+
+/*
+    Full Program Description:
+
+    Graph(String) and GraphLists(String) hold every edge in memory. This class reads an edge file once, from start to
+    end, with an EdgeFileReader and keeps only what is needed for the vertices, so it works on edge files much larger
+    than the memory of the machine.
+
+        spanningForest  keeps a UnionFindSets of the V vertices. Each edge u--v whose ends are in different sets joins
+                        them and is kept as a forest edge, every other edge is forgotten as soon as it is read. At the
+                        end the sets are the connected components and the kept edges a spanning forest, in O(V)
+                        memory
+
+        mst             semi-streaming minimum spanning forest. The edges read are collected in a buffer of a fixed
+                        number of edges. When it is full, Kruskal's algorithm is run on the buffer and only the edges
+                        of its minimum spanning forest are kept, at most V - 1, so there is always room for more. An
+                        edge dropped this way is the heaviest on some cycle of edges already read, and by the cycle
+                        property it cannot be needed in the MST of the whole graph. After the last edge a final
+                        Kruskal pass gives the minimum spanning forest, in memory for the buffer only. The buffer must
+                        hold at least V edges, and a few times V keeps the number of Kruskal passes down
+
+    Every few million edges, progress is printed as the share of the file read so far and the edges read per second.
+
+    Run this class as a program on a text edge file:
+
+        java StreamingForest graph.txt [mst [bufferEdges]]
+*/
+
+// Import necessary libraries
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// This class finds connected components, spanning forests and minimum spanning forests in one pass over an edge file
+class StreamingForest {
+
+    // Progress is reported after every this many edges
+    static final int REPORT_EVERY = 1 << 22;
+
+    private final String graphFile;
+    private final PrintStream progress;
+
+    // Results of the last run
+    private int V;
+    private long edgesRead;
+    private UnionFindSets sets;
+    private int[] fu, fv, fw; // forest edges fu[i]--fv[i] of weight fw[i] for i = 0..count-1
+    private int count;
+    private int passes;
+    private long nanos;
+
+    // Constructor - takes the file to read and where to print progress, or null for no progress
+    public StreamingForest(String _graphFile, PrintStream _progress) {
+
+        graphFile = _graphFile;
+        progress = _progress;
+    }
+
+    // Connected components and a spanning forest, keeping the first edge read that joins two components
+    public void spanningForest() throws IOException {
+
+        long start = System.nanoTime();
+
+        try (EdgeFileReader in = new EdgeFileReader(graphFile)) {
+
+            int E = header(in);
+
+            sets = new UnionFindSets(V);
+            fu = new int[Math.max(0, V - 1)];
+            fv = new int[fu.length];
+            fw = new int[fu.length];
+            count = 0;
+
+            for (edgesRead = 0; edgesRead < E; ) {
+
+                int u = vertex(in), v = vertex(in), w = in.nextInt();
+
+                if (count < V - 1 && sets.findSet(u) != sets.findSet(v)) {
+
+                    sets.unionByRank(u, v);
+                    fu[count] = u;
+                    fv[count] = v;
+                    fw[count++] = w;
+                }
+                report(in, ++edgesRead, start);
+            }
+        }
+
+        passes = 0;
+        nanos = System.nanoTime() - start;
+    }
+
+    // Minimum spanning forest, holding at most bufferEdges edges in memory at once
+    public void mst(int bufferEdges) throws IOException {
+
+        long start = System.nanoTime();
+
+        try (EdgeFileReader in = new EdgeFileReader(graphFile)) {
+
+            int E = header(in);
+
+            if (bufferEdges < Math.max(1, V)) {
+
+                throw new IllegalArgumentException("The buffer must hold at least V = " + V + " edges");
+            }
+
+            fu = new int[bufferEdges];
+            fv = new int[bufferEdges];
+            fw = new int[bufferEdges];
+            count = 0;
+            passes = 0;
+
+            for (edgesRead = 0; edgesRead < E; ) {
+
+                if (count == bufferEdges) {
+
+                    compact();
+                }
+                fu[count] = vertex(in);
+                fv[count] = vertex(in);
+                fw[count++] = in.nextInt();
+                report(in, ++edgesRead, start);
+            }
+        }
+
+        compact();
+        fu = Arrays.copyOf(fu, count);
+        fv = Arrays.copyOf(fv, count);
+        fw = Arrays.copyOf(fw, count);
+        nanos = System.nanoTime() - start;
+    }
+
+    // Kruskal's algorithm on the buffer, keeping only its minimum spanning forest in order of weight
+    private void compact() {
+
+        long[] keys = new long[count];
+        int kept = 0;
+
+        // Weight in the high 32 bits and position in the low 32 bits, as in ParallelKruskal
+        for (int i = 0; i < count; i++) {
+
+            keys[i] = ((long) fw[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        sets = new UnionFindSets(V);
+        int[] u = new int[Math.max(0, V - 1)], v = new int[u.length], w = new int[u.length];
+
+        for (int k = 0; k < count && kept < V - 1; k++) {
+
+            int i = (int) keys[k];
+
+            if (sets.findSet(fu[i]) != sets.findSet(fv[i])) {
+
+                sets.unionByRank(fu[i], fv[i]);
+                u[kept] = fu[i];
+                v[kept] = fv[i];
+                w[kept++] = fw[i];
+            }
+        }
+
+        System.arraycopy(u, 0, fu, 0, kept);
+        System.arraycopy(v, 0, fv, 0, kept);
+        System.arraycopy(w, 0, fw, 0, kept);
+        count = kept;
+        passes++;
+    }
+
+    // Reads the "V E" line and returns E
+    private int header(EdgeFileReader in) throws IOException {
+
+        V = in.nextInt();
+        int E = in.nextInt();
+
+        if (V < 0 || E < 0) {
+
+            throw new IOException("Bad graph file header: V = " + V + ", E = " + E);
+        }
+        return E;
+    }
+
+    private int vertex(EdgeFileReader in) throws IOException {
+
+        int v = in.nextInt();
+
+        if (v < 1 || v > V) {
+
+            throw new IOException("Vertex " + v + " out of range 1.." + V + " at byte " + in.position());
+        }
+        return v;
+    }
+
+    private void report(EdgeFileReader in, long edges, long start) {
+
+        if (progress != null && edges % REPORT_EVERY == 0) {
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            progress.printf("%5.1f%%  %,d edges  %,.0f edges/s%n", 100.0 * in.position() / in.size(), edges,
+                    edges / seconds);
+        }
+    }
+
+    public int vertices() {
+
+        return V;
+    }
+
+    public long edgesRead() {
+
+        return edgesRead;
+    }
+
+    // Number of connected components
+    public int components() {
+
+        return sets.count();
+    }
+
+    // Root of the component containing v, the same for every vertex of one component
+    public int component(int v) {
+
+        return sets.findSet(v);
+    }
+
+    // Edges of the forest, V - components() of them
+    public Edge[] forest() {
+
+        Edge[] edges = new Edge[count];
+
+        for (int i = 0; i < count; i++) {
+
+            edges[i] = new Edge(fu[i], fv[i], fw[i]);
+        }
+        return edges;
+    }
+
+    public long weight() {
+
+        long sum = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            sum += fw[i];
+        }
+        return sum;
+    }
+
+    // Number of Kruskal passes the last mst() made
+    public int passes() {
+
+        return passes;
+    }
+
+    public long nanos() {
+
+        return nanos;
+    }
+
+    // Streams the file named by the first argument, for components or, with "mst", a minimum spanning forest
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+
+            System.out.println("Usage: java StreamingForest <graph.txt> [mst [bufferEdges]]");
+            return;
+        }
+
+        StreamingForest sf = new StreamingForest(args[0], System.out);
+        Runtime rt = Runtime.getRuntime();
+
+        if (args.length > 1 && args[1].equals("mst")) {
+
+            try (EdgeFileReader in = new EdgeFileReader(args[0])) {
+
+                int V = in.nextInt();
+                sf.mst(args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, 4 * V));
+            }
+        } else {
+
+            sf.spanningForest();
+        }
+
+        System.out.printf("V = %d, %d edges read in %.1f ms, %,.0f edges/s%n", sf.vertices(), sf.edgesRead(),
+                sf.nanos() / 1e6, sf.edgesRead() / (sf.nanos() / 1e9));
+        System.out.printf("%d components, %d forest edges of total weight %d", sf.components(), sf.forest().length,
+                sf.weight());
+        System.out.println(sf.passes() > 0 ? ", " + sf.passes() + " Kruskal passes" : "");
+        System.out.printf("Heap in use %.1f MB%n", (rt.totalMemory() - rt.freeMemory()) / 1048576.0);
+    }
+}
@@ -0,0 +1,146 @@
+// Title: Synthetic Graphs for Benchmarks
+
+/*
+    Builds reproducible connected test graphs in memory as EdgeLists, so benchmarks do not depend on input files.
+    Every graph starts from a random spanning tree (each vertex v > 1 joined to a random earlier vertex), which keeps
+    it connected for the MST algorithms. Edge weights are drawn from 1..100. The same seed always gives the same graph.
+
+        sparse    random spanning tree plus random edges up to the requested average degree
+        dense     random spanning tree plus every other pair of vertices with probability 1/2
+        grid      rows x cols grid where each vertex is joined to its right and lower neighbours
+        powerLaw  preferential attachment: each new vertex joins k existing vertices picked in proportion to degree
+*/
+
+// Import necessary libraries
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// This class generates random graphs of different shapes for the benchmarks
+final class SyntheticGraphs {
+
+    private int V, E;
+    private int[] u, v, w;
+    private final SplittableRandom rnd;
+
+    private SyntheticGraphs(int _V, long seed) {
+
+        V = _V;
+        E = 0;
+        u = new int[16];
+        v = new int[16];
+        w = new int[16];
+        rnd = new SplittableRandom(seed);
+    }
+
+    // Adds edge a--b with a random weight
+    private void add(int a, int b) {
+
+        if (E == u.length) {
+
+            u = Arrays.copyOf(u, 2 * E);
+            v = Arrays.copyOf(v, 2 * E);
+            w = Arrays.copyOf(w, 2 * E);
+        }
+        u[E] = a;
+        v[E] = b;
+        w[E++] = 1 + rnd.nextInt(100);
+    }
+
+    private void spanningTree() {
+
+        for (int b = 2; b <= V; b++) {
+
+            add(1 + rnd.nextInt(b - 1), b);
+        }
+    }
+
+    private EdgeList edges() {
+
+        return new EdgeList(V, E, Arrays.copyOf(u, E), Arrays.copyOf(v, E), Arrays.copyOf(w, E), 0, 0);
+    }
+
+    // Random sparse graph with about avgDegree neighbours per vertex
+    public static EdgeList sparse(int V, int avgDegree, long seed) {
+
+        SyntheticGraphs g = new SyntheticGraphs(V, seed);
+        long target = (long) V * avgDegree / 2;
+
+        g.spanningTree();
+        while (g.E < target) {
+
+            g.add(1 + g.rnd.nextInt(V), 1 + g.rnd.nextInt(V));
+        }
+        return g.edges();
+    }
+
+    // Random dense graph with about V * V / 4 edges
+    public static EdgeList dense(int V, long seed) {
+
+        SyntheticGraphs g = new SyntheticGraphs(V, seed);
+
+        g.spanningTree();
+        for (int a = 1; a <= V; a++) {
+
+            for (int b = a + 1; b <= V; b++) {
+
+                if (g.rnd.nextBoolean()) {
+
+                    g.add(a, b);
+                }
+            }
+        }
+        return g.edges();
+    }
+
+    // rows x cols grid graph
+    public static EdgeList grid(int rows, int cols, long seed) {
+
+        SyntheticGraphs g = new SyntheticGraphs(rows * cols, seed);
+
+        for (int r = 0; r < rows; r++) {
+
+            for (int c = 0; c < cols; c++) {
+
+                int x = r * cols + c + 1;
+
+                if (c + 1 < cols) {
+
+                    g.add(x, x + 1);
+                }
+                if (r + 1 < rows) {
+
+                    g.add(x, x + cols);
+                }
+            }
+        }
+        return g.edges();
+    }
+
+    // Power-law graph by preferential attachment, each new vertex adds k edges
+    public static EdgeList powerLaw(int V, int k, long seed) {
+
+        SyntheticGraphs g = new SyntheticGraphs(V, seed);
+
+        // Every edge end is recorded, so picking a random entry picks a vertex in proportion to its degree
+        int[] ends = new int[2 * k * V + 2];
+        int n = 0;
+
+        g.add(1, 2);
+        ends[n++] = 1;
+        ends[n++] = 2;
+
+        for (int b = 3; b <= V; b++) {
+
+            int links = Math.min(k, b - 1);
+
+            for (int j = 0; j < links; j++) {
+
+                int a = ends[g.rnd.nextInt(n)];
+                g.add(a, b);
+                ends[n++] = a;
+                ends[n++] = b;
+            }
+        }
+        return g.edges();
+    }
+}